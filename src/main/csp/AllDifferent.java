@@ -0,0 +1,310 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * All-different global constraint over a clique of meetings that must each
+ * be on a different day, filtered with Regin's algorithm: a maximum matching
+ * of meetings to days is found, and a day is removed from a meeting's domain
+ * unless the pair belongs to some maximum matching, i.e., is matched, lies on
+ * an alternating cycle, or lies on an alternating path from a free day. This
+ * prunes everything pairwise != arcs can, and also detects pigeonhole
+ * failures, e.g., 4 meetings over 3 days, without any search.
+ *
+ * Days are compared by their offsets, so every domain of a clique must span
+ * the same range.
+ */
+class AllDifferent {
+
+    // the smallest clique for which matching prunes more than pairwise arcs
+    static final int MIN_SIZE = 3;
+
+    final int[] MEETINGS;
+
+    private final List<MeetingDomain> domains;
+    private final int span;
+
+    // match[i] is the offset matched to MEETINGS[i], and matchedBy[v] the index
+    // of the meeting matched to offset v, or -1 if none; kept between calls
+    private final int[] match;
+    private final int[] matchedBy;
+
+    // per-offset scratch for augmenting paths and Tarjan's SCC algorithm
+    private final int[] visited;
+    private int stamp;
+    private final int[] order, lowLink, sccStack;
+    private final boolean[] onStack, reachable;
+    private int nextOrder, sccTop;
+
+    // explicit stacks of augment and strongConnect, one frame per meeting on
+    // the current path: the meeting or day it visits, and its cursor
+    private final int[] frames, cursors;
+
+    /**
+     * Creates a new all-different constraint over the given meetings.
+     * @param meetings Meetings that are pairwise constrained by !=, <, or >
+     * @param domains Meeting-indexed MeetingDomains, compatible over the clique
+     */
+    AllDifferent (int[] meetings, List<MeetingDomain> domains) {
+        this.MEETINGS = meetings;
+        this.domains = domains;
+        this.span = domains.get(meetings[0]).span();
+        this.match = new int[meetings.length];
+        this.matchedBy = new int[this.span];
+        Arrays.fill(this.match, -1);
+        Arrays.fill(this.matchedBy, -1);
+        this.visited = new int[this.span];
+        this.order = new int[this.span];
+        this.lowLink = new int[this.span];
+        this.sccStack = new int[this.span];
+        this.onStack = new boolean[this.span];
+        this.reachable = new boolean[this.span];
+        this.frames = new int[meetings.length];
+        this.cursors = new int[meetings.length];
+    }
+
+    /**
+     * Greedily finds cliques of meetings whose pairwise relations all exclude
+     * equality: each meeting with a != arc not yet in a clique seeds one,
+     * which grows by every neighbor related to all of its members.
+     * @param network A compiled constraint network
+     * @param domains Meeting-indexed MeetingDomains
+     * @return All-different constraints over cliques of at least MIN_SIZE
+     *         meetings whose domains span the same range.
+     */
+    static List<AllDifferent> detect (ConstraintNetwork network, List<MeetingDomain> domains) {
+        int n = network.N_MEETINGS;
+        boolean[] covered = new boolean[network.N_ARCS];
+        // count[m] is how many clique members m differs from
+        int[] count = new int[n];
+        int[] clique = new int[n];
+        List<AllDifferent> result = new ArrayList<>();
+        for (int seed = 0; seed < n; seed++) {
+            int[] neighbors = network.NEIGHBORS[seed];
+            boolean uncovered = false;
+            for (int k = 0; k < neighbors.length && !uncovered; k++) {
+                uncovered = differs(network.NEIGHBOR_OPS[seed][k]) && !covered[network.ARC_START[seed] + k];
+            }
+            if (!uncovered) {
+                continue;
+            }
+            int size = 0;
+            clique[size++] = seed;
+            addCounts(network, seed, count, 1);
+            for (int k = 0; k < neighbors.length; k++) {
+                int candidate = neighbors[k];
+                if (count[candidate] == size && differs(network.NEIGHBOR_OPS[seed][k])
+                        && domains.get(candidate).isCompatible(domains.get(seed))) {
+                    clique[size++] = candidate;
+                    addCounts(network, candidate, count, 1);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                addCounts(network, clique[i], count, -1);
+            }
+            if (size < MIN_SIZE) {
+                continue;
+            }
+            int[] meetings = Arrays.copyOf(clique, size);
+            Arrays.sort(meetings);
+            for (int m : meetings) {
+                int[] ns = network.NEIGHBORS[m];
+                for (int k = 0; k < ns.length; k++) {
+                    if (Arrays.binarySearch(meetings, ns[k]) >= 0) {
+                        covered[network.ARC_START[m] + k] = true;
+                    }
+                }
+            }
+            result.add(new AllDifferent(meetings, domains));
+        }
+        return result;
+    }
+
+    private static boolean differs (int opCode) {
+        return opCode != 0 && (opCode & DateConstraint.EQ) == 0;
+    }
+
+    private static void addCounts (ConstraintNetwork network, int meeting, int[] count, int delta) {
+        int[] neighbors = network.NEIGHBORS[meeting];
+        for (int k = 0; k < neighbors.length; k++) {
+            if (differs(network.NEIGHBOR_OPS[meeting][k])) {
+                count[neighbors[k]] += delta;
+            }
+        }
+    }
+
+    /**
+     * Removes every day from the clique's domains that belongs to no maximum
+     * matching, saving each domain to the trail before its first removal.
+     * @param trail Trail on which to save domains, or null
+     * @return false if the meetings cannot all be on different days, true
+     *         otherwise.
+     */
+    boolean filter (DomainTrail trail) {
+        int k = this.MEETINGS.length;
+        // keep the previous matching where its days remain, then augment
+        for (int i = 0; i < k; i++) {
+            if (this.match[i] != -1 && !this.domains.get(this.MEETINGS[i]).containsOffset(this.match[i])) {
+                this.matchedBy[this.match[i]] = -1;
+                this.match[i] = -1;
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            if (this.match[i] == -1) {
+                this.stamp++;
+                if (!augment(i)) {
+                    return false;
+                }
+            }
+        }
+
+        // days reachable by alternating paths from free days: day v leads to
+        // the day matched to every meeting that could take v instead
+        Arrays.fill(this.reachable, false);
+        int head = 0, tail = 0;
+        for (int i = 0; i < k; i++) {
+            MeetingDomain domain = this.domains.get(this.MEETINGS[i]);
+            for (int v = domain.firstOffset(); v != -1; v = domain.nextOffset(v + 1)) {
+                if (this.matchedBy[v] == -1 && !this.reachable[v]) {
+                    this.reachable[v] = true;
+                    this.sccStack[tail++] = v;
+                }
+            }
+        }
+        while (head < tail) {
+            int v = this.sccStack[head++];
+            for (int i = 0; i < k; i++) {
+                int u = this.match[i];
+                if (u != v && !this.reachable[u] && this.domains.get(this.MEETINGS[i]).containsOffset(v)) {
+                    this.reachable[u] = true;
+                    this.sccStack[tail++] = u;
+                }
+            }
+        }
+
+        // alternating cycles are the strongly connected components among
+        // matched days, numbered in lowLink
+        Arrays.fill(this.order, 0);
+        this.nextOrder = 0;
+        this.sccTop = 0;
+        for (int i = 0; i < k; i++) {
+            if (this.order[this.match[i]] == 0) {
+                strongConnect(this.match[i]);
+            }
+        }
+
+        for (int i = 0; i < k; i++) {
+            int meeting = this.MEETINGS[i], matched = this.match[i];
+            MeetingDomain domain = this.domains.get(meeting);
+            boolean saved = false;
+            for (int v = domain.firstOffset(); v != -1; v = domain.nextOffset(v + 1)) {
+                // free days are all reachable, and matched ones have components
+                if (v == matched || this.reachable[v] || this.lowLink[v] == this.lowLink[matched]) {
+                    continue;
+                }
+                if (!saved && trail != null) {
+                    trail.save(meeting);
+                }
+                saved = true;
+                domain.removeOffset(v);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds an augmenting path from the i-th meeting, i.e., matches it to a
+     * free day in its domain, rematching other meetings as needed. The path
+     * is searched depth first, each frame holding a meeting and the last day
+     * it tried.
+     */
+    private boolean augment (int i) {
+        int depth = 0;
+        this.frames[0] = i;
+        this.cursors[0] = -1;
+        while (depth >= 0) {
+            int meeting = this.frames[depth];
+            MeetingDomain domain = this.domains.get(this.MEETINGS[meeting]);
+            int v = this.cursors[depth] == -1 ? domain.firstOffset() : domain.nextOffset(this.cursors[depth] + 1);
+            while (v != -1 && this.visited[v] == this.stamp) {
+                v = domain.nextOffset(v + 1);
+            }
+            if (v == -1) {
+                // this meeting cannot be rematched, so its parent tries another day
+                depth--;
+                continue;
+            }
+            this.visited[v] = this.stamp;
+            this.cursors[depth] = v;
+            if (this.matchedBy[v] == -1) {
+                // every meeting on the path takes the day it reached
+                for (int d = depth; d >= 0; d--) {
+                    this.match[this.frames[d]] = this.cursors[d];
+                    this.matchedBy[this.cursors[d]] = this.frames[d];
+                }
+                return true;
+            }
+            depth++;
+            this.frames[depth] = this.matchedBy[v];
+            this.cursors[depth] = -1;
+        }
+        return false;
+    }
+
+    /**
+     * Tarjan's algorithm from matched day root, whose successors are the days
+     * matched to every other meeting that could take it. Each frame holds a
+     * day being visited and the next meeting whose day to consider. On
+     * return, every day of a completed component holds the component's root
+     * in lowLink.
+     */
+    private void strongConnect (int root) {
+        int depth = 0;
+        this.frames[0] = root;
+        this.cursors[0] = 0;
+        visit(root);
+        while (depth >= 0) {
+            int v = this.frames[depth];
+            int i = this.cursors[depth];
+            if (i < this.MEETINGS.length) {
+                this.cursors[depth]++;
+                int u = this.match[i];
+                if (u == v || !this.domains.get(this.MEETINGS[i]).containsOffset(v)) {
+                    continue;
+                }
+                if (this.order[u] == 0) {
+                    visit(u);
+                    depth++;
+                    this.frames[depth] = u;
+                    this.cursors[depth] = 0;
+                } else if (this.onStack[u]) {
+                    this.lowLink[v] = Math.min(this.lowLink[v], this.order[u]);
+                }
+                continue;
+            }
+            if (this.lowLink[v] == this.order[v]) {
+                int u;
+                do {
+                    u = this.sccStack[--this.sccTop];
+                    this.onStack[u] = false;
+                    this.lowLink[u] = this.order[v];
+                } while (u != v);
+            }
+            depth--;
+            if (depth >= 0) {
+                int parent = this.frames[depth];
+                this.lowLink[parent] = Math.min(this.lowLink[parent], this.lowLink[v]);
+            }
+        }
+    }
+
+    /**
+     * Numbers the given day and pushes it onto Tarjan's stack.
+     */
+    private void visit (int v) {
+        this.order[v] = this.lowLink[v] = ++this.nextOrder;
+        this.sccStack[this.sccTop++] = v;
+        this.onStack[v] = true;
+    }
+
+}
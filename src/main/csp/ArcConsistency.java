@@ -0,0 +1,410 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * AC-3 over the int-indexed arc table of a ConstraintNetwork. Pending arcs
+ * are kept in a FIFO ring buffer alongside a bitmap of which arcs are
+ * currently queued, so that each arc is queued at most once and the arcs
+ * to requeue after a revision are read directly from ARCS_INTO.
+ *
+ * Arcs are revised either by rescanning the head's domain (AC-3), by
+ * AC-2001/3.1-style residual supports, which remember the last support
+ * found for each (arc, tail value) and resume the search from it, or by
+ * kernels specialized to each operator, which need no support checks:
+ * ordering operators only compare against the head's min / max, == is a
+ * word-wise intersection, and != can only prune when the head is a singleton.
+ *
+ * Optionally, cliques of meetings that must all differ are also filtered as
+ * AllDifferent constraints whenever the arc queue runs dry, requeueing the
+ * arcs into any meeting they prune.
+ *
+ * Used both for pre-processing, in which pruning is permanent, and during
+ * search, in which pruning is recorded on a DomainTrail.
+ */
+class ArcConsistency {
+
+    private final ConstraintNetwork network;
+    private final List<MeetingDomain> domains;
+    private final SolverOptions.ArcConsistencyAlgorithm algorithm;
+
+    // residues[arc][t] is 1 + the head offset last found to support tail offset
+    // t on arc, or 0 if none has been found; allocated per arc on first use
+    private final int[][] residues;
+
+    // ring buffer of arc ids; holds every arc at most once, so N_ARCS slots suffice
+    private final int[] queue;
+    private int queueHead, queueSize;
+    private final long[] inQueue;
+
+    // all-different constraints, those each meeting belongs to, and which
+    // have had a domain change since they were last filtered
+    private final AllDifferent[] allDifferents;
+    private final int[][] allDifferentsOf;
+    private final boolean[] dirty;
+    private final int[] sizes;
+
+    /**
+     * Creates a new propagator over the given network and domains.
+     * @param network The compiled constraints whose arcs are revised
+     * @param domains Meeting-indexed MeetingDomains to prune
+     * @param algorithm How arcs are revised
+     */
+    ArcConsistency (ConstraintNetwork network, List<MeetingDomain> domains,
+            SolverOptions.ArcConsistencyAlgorithm algorithm) {
+        this(network, domains, algorithm, false);
+    }
+
+    /**
+     * Creates a new propagator over the given network and domains, which may
+     * also filter all-different constraints detected in the network.
+     * @param network The compiled constraints whose arcs are revised
+     * @param domains Meeting-indexed MeetingDomains to prune
+     * @param algorithm How arcs are revised
+     * @param allDifferent Whether or not to filter cliques of != by matching
+     */
+    ArcConsistency (ConstraintNetwork network, List<MeetingDomain> domains,
+            SolverOptions.ArcConsistencyAlgorithm algorithm, boolean allDifferent) {
+        this.network = network;
+        this.domains = domains;
+        this.algorithm = algorithm;
+        // the specialized kernels fall back on residual supports for domains
+        // over different ranges
+        this.residues = algorithm != SolverOptions.ArcConsistencyAlgorithm.AC3
+                ? new int[network.N_ARCS][] : null;
+        this.queue = new int[Math.max(1, network.N_ARCS)];
+        this.inQueue = new long[(network.N_ARCS + 63) / 64];
+
+        List<AllDifferent> detected = allDifferent
+                ? AllDifferent.detect(network, domains) : Collections.emptyList();
+        this.allDifferents = detected.toArray(new AllDifferent[0]);
+        int[] count = new int[network.N_MEETINGS];
+        int largest = 0;
+        for (AllDifferent clique : this.allDifferents) {
+            for (int m : clique.MEETINGS) {
+                count[m]++;
+            }
+            largest = Math.max(largest, clique.MEETINGS.length);
+        }
+        this.allDifferentsOf = new int[network.N_MEETINGS][];
+        for (int m = 0; m < network.N_MEETINGS; m++) {
+            this.allDifferentsOf[m] = new int[count[m]];
+            count[m] = 0;
+        }
+        for (int c = 0; c < this.allDifferents.length; c++) {
+            for (int m : this.allDifferents[c].MEETINGS) {
+                this.allDifferentsOf[m][count[m]++] = c;
+            }
+        }
+        this.dirty = new boolean[this.allDifferents.length];
+        this.sizes = new int[largest];
+    }
+
+    /**
+     * Enforces arc consistency on every arc of the network.
+     * @param trail Trail on which to save domains before pruning, or null if
+     *              pruning should be permanent
+     * @return false if some domain was wiped out, true otherwise.
+     */
+    boolean propagate (DomainTrail trail) {
+        for (int arc = 0; arc < this.network.N_ARCS; arc++) {
+            enqueue(arc);
+        }
+        Arrays.fill(this.dirty, true);
+        return run(trail);
+    }
+
+    /**
+     * Re-establishes arc consistency after the given meeting's domain has
+     * been reduced, starting from the arcs that point at it.
+     * @param meeting The meeting whose domain changed
+     * @param trail Trail on which to save domains before pruning, or null if
+     *              pruning should be permanent
+     * @return false if some domain was wiped out, true otherwise.
+     */
+    boolean propagateFrom (int meeting, DomainTrail trail) {
+        for (int arc : this.network.ARCS_INTO[meeting]) {
+            enqueue(arc);
+        }
+        markDirty(meeting);
+        return run(trail);
+    }
+
+    /**
+     * Removes every value from the tail's domain that has no support in the
+     * head's domain, saving the tail's domain to the trail before its first
+     * removal.
+     * @param arc The id of the arc to revise
+     * @param trail Trail on which to save the tail's domain, or null
+     * @return Whether or not the tail's domain changed.
+     */
+    boolean revise (int arc, DomainTrail trail) {
+        if (this.algorithm == SolverOptions.ArcConsistencyAlgorithm.SPECIALIZED) {
+            return reviseSpecialized(arc, trail);
+        }
+        if (this.algorithm == SolverOptions.ArcConsistencyAlgorithm.AC2001) {
+            return reviseResidual(arc, trail);
+        }
+        int tail = this.network.ARC_TAIL[arc], opCode = this.network.ARC_OP[arc];
+        MeetingDomain tailDomain = this.domains.get(tail);
+        MeetingDomain headDomain = this.domains.get(this.network.ARC_HEAD[arc]);
+        boolean removed = false;
+        for (int t = tailDomain.firstOffset(); t != -1; t = tailDomain.nextOffset(t + 1)) {
+            long tailDay = tailDomain.toEpochDay(t);
+            boolean supported = false;
+            for (int h = headDomain.firstOffset(); h != -1; h = headDomain.nextOffset(h + 1)) {
+                if (DateConstraint.isSatisfied(opCode, tailDay, headDomain.toEpochDay(h))) {
+                    supported = true;
+                    break;
+                }
+            }
+            if (!supported) {
+                if (!removed && trail != null) {
+                    trail.save(tail);
+                }
+                removed = true;
+                tailDomain.removeOffset(t);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Dispatches the arc to the revise kernel for its operator, each of which
+     * runs in time linear in the number of bitset words or better.
+     */
+    private boolean reviseSpecialized (int arc, DomainTrail trail) {
+        int tail = this.network.ARC_TAIL[arc];
+        MeetingDomain tailDomain = this.domains.get(tail);
+        MeetingDomain headDomain = this.domains.get(this.network.ARC_HEAD[arc]);
+        if (tailDomain.isEmpty()) {
+            return false;
+        }
+        if (headDomain.isEmpty()) {
+            // no value of the tail can be supported
+            save(tail, trail);
+            tailDomain.clear();
+            return true;
+        }
+        switch (this.network.ARC_OP[arc]) {
+        case DateConstraint.LT:
+            return retainDays(tail, trail, Long.MIN_VALUE, headDomain.toEpochDay(headDomain.lastOffset()) - 1);
+        case DateConstraint.LT | DateConstraint.EQ:
+            return retainDays(tail, trail, Long.MIN_VALUE, headDomain.toEpochDay(headDomain.lastOffset()));
+        case DateConstraint.GT:
+            return retainDays(tail, trail, headDomain.toEpochDay(headDomain.firstOffset()) + 1, Long.MAX_VALUE);
+        case DateConstraint.EQ | DateConstraint.GT:
+            return retainDays(tail, trail, headDomain.toEpochDay(headDomain.firstOffset()), Long.MAX_VALUE);
+        case DateConstraint.EQ:
+            if (!tailDomain.isCompatible(headDomain)) {
+                break;
+            }
+            if (tailDomain.isSubsetOf(headDomain)) {
+                return false;
+            }
+            save(tail, trail);
+            return tailDomain.retainAll(headDomain);
+        case DateConstraint.LT | DateConstraint.GT:
+            if (headDomain.size() != 1) {
+                return false;
+            }
+            long day = headDomain.toEpochDay(headDomain.firstOffset());
+            if (!tailDomain.contains(day)) {
+                return false;
+            }
+            save(tail, trail);
+            return tailDomain.remove(day);
+        case 0:
+            // merged relations may be empty, which no value can satisfy
+            save(tail, trail);
+            tailDomain.clear();
+            return true;
+        default:
+            break;
+        }
+        return reviseResidual(arc, trail);
+    }
+
+    /**
+     * Removes every day outside of [loDay, hiDay] from the tail's domain.
+     */
+    private boolean retainDays (int tail, DomainTrail trail, long loDay, long hiDay) {
+        MeetingDomain tailDomain = this.domains.get(tail);
+        long lo = loDay == Long.MIN_VALUE ? 0 : Math.max(tailDomain.offsetOf(loDay), 0);
+        long hi = hiDay == Long.MAX_VALUE ? tailDomain.span() - 1 : Math.min(tailDomain.offsetOf(hiDay), tailDomain.span() - 1);
+        if (tailDomain.firstOffset() >= lo && tailDomain.lastOffset() <= hi) {
+            return false;
+        }
+        save(tail, trail);
+        if (lo > hi) {
+            tailDomain.clear();
+            return true;
+        }
+        return tailDomain.retainOffsets((int) lo, (int) hi);
+    }
+
+    private void save (int meeting, DomainTrail trail) {
+        if (trail != null) {
+            trail.save(meeting);
+        }
+    }
+
+    /**
+     * AC-2001 revision: a tail value whose residual support is still in the
+     * head's domain is kept without any checks, otherwise its search resumes
+     * just past the residue. Since search may restore values below the
+     * residue, the scan wraps around to the head's first value rather than
+     * stopping at its last.
+     */
+    private boolean reviseResidual (int arc, DomainTrail trail) {
+        int tail = this.network.ARC_TAIL[arc], opCode = this.network.ARC_OP[arc];
+        MeetingDomain tailDomain = this.domains.get(tail);
+        MeetingDomain headDomain = this.domains.get(this.network.ARC_HEAD[arc]);
+        int[] residue = this.residues[arc];
+        if (residue == null) {
+            residue = this.residues[arc] = new int[tailDomain.span()];
+        }
+        boolean removed = false;
+        for (int t = tailDomain.firstOffset(); t != -1; t = tailDomain.nextOffset(t + 1)) {
+            int last = residue[t] - 1;
+            if (last >= 0 && headDomain.containsOffset(last)) {
+                continue;
+            }
+            long tailDay = tailDomain.toEpochDay(t);
+            int support = -1;
+            for (int h = headDomain.nextOffset(last + 1); h != -1; h = headDomain.nextOffset(h + 1)) {
+                if (DateConstraint.isSatisfied(opCode, tailDay, headDomain.toEpochDay(h))) {
+                    support = h;
+                    break;
+                }
+            }
+            for (int h = headDomain.firstOffset(); support == -1 && h != -1 && h < last; h = headDomain.nextOffset(h + 1)) {
+                if (DateConstraint.isSatisfied(opCode, tailDay, headDomain.toEpochDay(h))) {
+                    support = h;
+                }
+            }
+            if (support != -1) {
+                residue[t] = support + 1;
+                continue;
+            }
+            if (!removed && trail != null) {
+                trail.save(tail);
+            }
+            removed = true;
+            tailDomain.removeOffset(t);
+        }
+        return removed;
+    }
+
+    /**
+     * Revises queued arcs until the queue empties. When revising tail -> head
+     * changes D_tail, every arc into tail other than head -> tail is requeued.
+     * Once the queue empties, every dirty all-different constraint is filtered,
+     * and revision resumes from the arcs into any meeting it pruned.
+     * During search, a wipe-out ends propagation immediately; in pre-processing
+     * (no trail) it continues to the fixpoint, emptying every domain connected
+     * to the wiped out one.
+     */
+    private boolean run (DomainTrail trail) {
+        boolean consistent = true;
+        do {
+            while (this.queueSize > 0) {
+                int arc = dequeue();
+                if (revise(arc, trail)) {
+                    int tail = this.network.ARC_TAIL[arc];
+                    if (this.domains.get(tail).isEmpty()) {
+                        if (trail != null) {
+                            clearQueue();
+                            Arrays.fill(this.dirty, false);
+                            return false;
+                        }
+                        consistent = false;
+                    }
+                    int reverse = this.network.ARC_REVERSE[arc];
+                    for (int into : this.network.ARCS_INTO[tail]) {
+                        if (into != reverse) {
+                            enqueue(into);
+                        }
+                    }
+                    markDirty(tail);
+                }
+            }
+            for (int c = 0; c < this.allDifferents.length; c++) {
+                if (!this.dirty[c]) {
+                    continue;
+                }
+                this.dirty[c] = false;
+                if (!filterAllDifferent(c, trail)) {
+                    if (trail != null) {
+                        clearQueue();
+                        Arrays.fill(this.dirty, false);
+                        return false;
+                    }
+                    consistent = false;
+                }
+            }
+        } while (this.queueSize > 0);
+        return consistent;
+    }
+
+    /**
+     * Filters the c-th all-different constraint, queueing the arcs into, and
+     * other constraints over, each meeting it prunes.
+     * @return false if its meetings cannot all differ, true otherwise.
+     */
+    private boolean filterAllDifferent (int c, DomainTrail trail) {
+        int[] meetings = this.allDifferents[c].MEETINGS;
+        for (int i = 0; i < meetings.length; i++) {
+            this.sizes[i] = this.domains.get(meetings[i]).size();
+        }
+        if (!this.allDifferents[c].filter(trail)) {
+            return false;
+        }
+        for (int i = 0; i < meetings.length; i++) {
+            if (this.domains.get(meetings[i]).size() != this.sizes[i]) {
+                for (int into : this.network.ARCS_INTO[meetings[i]]) {
+                    enqueue(into);
+                }
+                for (int other : this.allDifferentsOf[meetings[i]]) {
+                    this.dirty[other] |= other != c;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void markDirty (int meeting) {
+        for (int c : this.allDifferentsOf[meeting]) {
+            this.dirty[c] = true;
+        }
+    }
+
+    // Worklist
+    // -------------------------------------------------------------------------
+
+    private void enqueue (int arc) {
+        long bit = 1L << arc;
+        if ((this.inQueue[arc >>> 6] & bit) != 0) {
+            return;
+        }
+        this.inQueue[arc >>> 6] |= bit;
+        int slot = this.queueHead + this.queueSize;
+        this.queue[slot >= this.queue.length ? slot - this.queue.length : slot] = arc;
+        this.queueSize++;
+    }
+
+    private int dequeue () {
+        int arc = this.queue[this.queueHead];
+        this.queueHead = this.queueHead + 1 == this.queue.length ? 0 : this.queueHead + 1;
+        this.queueSize--;
+        this.inQueue[arc >>> 6] &= ~(1L << arc);
+        return arc;
+    }
+
+    private void clearQueue () {
+        while (this.queueSize > 0) {
+            dequeue();
+        }
+    }
+
+}
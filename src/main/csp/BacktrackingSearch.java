@@ -0,0 +1,837 @@
+package main.csp;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Backtracking search over a compiled ConstraintNetwork, in which each
+ * assignment may be followed by constraint propagation into the domains of
+ * the remaining meetings. Any pruning done during search is recorded on a
+ * DomainTrail and undone when the search backtracks past it.
+ *
+ * Without propagation or with forward checking, dead ends may be resolved by
+ * conflict-directed backjumping: each depth keeps the set of shallower depths
+ * whose assignments ruled out its values, and when its values run out the
+ * search jumps straight back to the deepest of them, handing over the rest
+ * of the set.
+ *
+ * The assignments at the depths of each dead end's conflict set (or at
+ * every shallower depth, when not backjumping) are learned as a nogood in a
+ * bounded NogoodStore, which is checked before descending from each new
+ * assignment, so a failure is not rediscovered under a different prefix.
+ *
+ * Optionally, the search restarts from scratch after a number of failures
+ * following a Luby or geometric schedule. Restarted searches break ordering
+ * ties randomly and try each meeting's last date first (phase saving), so
+ * that later runs avoid the early choices that trapped earlier ones while
+ * keeping what those runs learned.
+ */
+class BacktrackingSearch {
+
+    private final ConstraintNetwork network;
+    private final List<MeetingDomain> domains;
+    private final SolverOptions options;
+    private final SolverOptions.Propagation propagation;
+    private final SolverOptions.VariableOrdering variableOrdering;
+    private final SolverOptions.ValueOrdering valueOrdering;
+    private final Random random;
+    private final DomainTrail trail;
+
+    // sparse assignment: the epoch day of each meeting, valid where assigned
+    private final long[] assignment;
+    private final boolean[] assigned;
+    // the number of meetings assigned before the search starts, by branch()
+    private int startDepth;
+
+    // choice points: per-depth buffers holding the ordered values to try, how
+    // many there are, and the index of the next one
+    private final int[][] values;
+    private final int[] valueCount, nextValue;
+    private long[] scores = new long[0];
+
+    private final ArcConsistency arcConsistency;
+
+    // where the search publishes its state for other threads, or null
+    private final SearchProgress progress;
+
+    // set by other threads to stop the search early: stop by the caller, and
+    // done by a parallel search once another of its searches found a solution
+    private final AtomicBoolean stop, done;
+
+    // returned by backTracking once every meeting is assigned, or to abandon a run
+    private static final int SOLVED = Integer.MAX_VALUE;
+    private static final int RESTART = Integer.MIN_VALUE;
+
+    // restarts: failures so far in this run, the limit at which it restarts,
+    // and the date each meeting was last assigned, or null without restarts
+    private final SolverOptions.Restarts restarts;
+    private final int restartBase;
+    private long failures, failLimit = Long.MAX_VALUE;
+    private final long[] phase;
+
+    // conflict-directed backjumping: conflicts[d] is the bitset of depths in the
+    // conflict set of depth d, and pruners[m] the depths whose forward checks
+    // pruned meeting m's domain; both are null when not backjumping
+    private final long[][] conflicts;
+    private final long[][] pruners;
+    private final int[] depthOf;
+    private final int[] meetingAt;
+
+    // learned nogoods, or null if none are kept, and buffers to build them in
+    private final NogoodStore nogoods;
+    private final int[] nogoodMeetings;
+    private final long[] nogoodDays;
+    // the meeting whose domain the last failed forward check wiped out
+    private int wipedOut;
+
+    /**
+     * Creates a new search over the given network, starting from the given
+     * (already filtered) domains, which the search will prune and restore.
+     * @param network The compiled constraints of the problem
+     * @param domains Meeting-indexed MeetingDomains
+     * @param options Configuration of the search
+     * @param stop Flag that, once set, makes the search give up, or null
+     */
+    BacktrackingSearch (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options,
+            AtomicBoolean stop) {
+        this(network, domains, options, stop, null);
+    }
+
+    /**
+     * Creates a new search over the given network, as one of several
+     * searches of a parallel search.
+     * @param network The compiled constraints of the problem
+     * @param domains Meeting-indexed MeetingDomains
+     * @param options Configuration of the search
+     * @param stop Flag that, once set, makes the search give up, or null
+     * @param done Flag that, once set by another search, makes this one give
+     *             up too, or null
+     */
+    BacktrackingSearch (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options,
+            AtomicBoolean stop, AtomicBoolean done) {
+        this(network, domains, options, stop, done, new long[network.N_MEETINGS], new boolean[network.N_MEETINGS]);
+    }
+
+    /**
+     * Creates a new search that keeps the given meetings assigned, numbering
+     * them as the shallowest depths in index order, and searches over the
+     * rest.
+     * @param network The compiled constraints of the problem
+     * @param domains Meeting-indexed MeetingDomains, consistent with the
+     *                assigned meetings' dates
+     * @param options Configuration of the search
+     * @param stop Flag that, once set, makes the search give up, or null
+     * @param done Flag that, once set by another search, makes this one give
+     *             up too, or null
+     * @param assignment Epoch days of the meetings, valid where assigned
+     * @param assigned Whether or not each meeting, by index, is assigned
+     */
+    private BacktrackingSearch (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options,
+            AtomicBoolean stop, AtomicBoolean done, long[] assignment, boolean[] assigned) {
+        this.network = network;
+        this.stop = stop;
+        this.done = done;
+        this.domains = domains;
+        this.options = options;
+        this.progress = options.progress();
+        this.propagation = options.propagation();
+        this.variableOrdering = options.variableOrdering();
+        this.valueOrdering = options.valueOrdering();
+        this.random = new Random(options.seed());
+        this.restarts = options.restarts();
+        this.restartBase = options.restartBase();
+        this.phase = this.restarts != SolverOptions.Restarts.NONE ? new long[network.N_MEETINGS] : null;
+        if (this.phase != null) {
+            Arrays.fill(this.phase, Long.MIN_VALUE);
+        }
+        this.values = new int[network.N_MEETINGS][];
+        this.valueCount = new int[network.N_MEETINGS];
+        this.nextValue = new int[network.N_MEETINGS];
+        this.trail = new DomainTrail(domains);
+        this.assignment = assignment;
+        this.assigned = assigned;
+        // all-different constraints are only filtered when maintaining arc consistency
+        this.arcConsistency = new ArcConsistency(network, domains, options.arcConsistency(),
+                options.allDifferent() && this.propagation == SolverOptions.Propagation.MAC);
+        this.depthOf = new int[network.N_MEETINGS];
+        this.meetingAt = new int[network.N_MEETINGS];
+        for (int m = 0; m < network.N_MEETINGS; m++) {
+            if (assigned[m]) {
+                this.depthOf[m] = this.startDepth;
+                this.meetingAt[this.startDepth++] = m;
+            }
+        }
+        this.nogoods = options.nogoods() > 0 ? new NogoodStore(domains, options.nogoods()) : null;
+        this.nogoodMeetings = new int[NogoodStore.MAX_LENGTH];
+        this.nogoodDays = new long[NogoodStore.MAX_LENGTH];
+        if (options.backjumping() && this.propagation != SolverOptions.Propagation.MAC) {
+            int words = (network.N_MEETINGS + 63) / 64;
+            this.conflicts = new long[network.N_MEETINGS][words];
+            this.pruners = new long[network.N_MEETINGS][words];
+        } else {
+            this.conflicts = null;
+            this.pruners = null;
+        }
+    }
+
+    /**
+     * Runs the search to completion.
+     * @return Epoch days of a consistent assignment indexed by meeting, or null
+     *         if none exists or another search of the same parallel search
+     *         found one first.
+     * @throws CancellationException If the stop flag is set first
+     */
+    long[] solve () {
+        if (this.progress != null) {
+            this.progress.reportNogoods(0, 0);
+        }
+        for (int run = 1; ; run++) {
+            this.failures = 0;
+            this.failLimit = restartLimit(run);
+            int result = backTracking(this.startDepth);
+            if (result != RESTART) {
+                return result == SOLVED ? this.assignment : null;
+            }
+        }
+    }
+
+    /**
+     * @param run The number of the run, from 1
+     * @return The number of failures after which the run restarts.
+     */
+    private long restartLimit (int run) {
+        switch (this.restarts) {
+        case LUBY:
+            return this.restartBase * luby(run);
+        case GEOMETRIC:
+            return (long) Math.min(this.restartBase * Math.pow(1.5, run - 1), Long.MAX_VALUE);
+        default:
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @param i A term index, from 1
+     * @return The i-th term of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, ...
+     */
+    static long luby (int i) {
+        // the term is 2^(k-1) when i = 2^k - 1, and otherwise repeats the
+        // sequence from the start of the current block
+        while (true) {
+            int k = 1;
+            while ((1L << k) - 1 < i) {
+                k++;
+            }
+            if ((1L << k) - 1 == i) {
+                return 1L << (k - 1);
+            }
+            i -= (1 << (k - 1)) - 1;
+        }
+    }
+
+    /**
+     * Assigns every unassigned meeting, one per depth from the given one,
+     * each chosen by the configured variable ordering. The choice point of
+     * each depth, i.e., its meeting, ordered values, and next value to try,
+     * is kept in per-depth arrays rather than on the call stack, so the
+     * search can go as deep as there are meetings.
+     * @param base The number of meetings already assigned
+     * @return SOLVED if the assignment could be completed, RESTART if the run
+     *         reached its failure limit, otherwise a depth shallower than base
+     *         to resume the search from, which is base - 1 unless
+     *         backjumping, or -1 if the search is over.
+     */
+    private int backTracking (int base) {
+        int depth = base;
+        // the result handed back to the choice point at depth, once it has
+        // descended and that subtree has been searched
+        int resume = 0;
+        boolean descending = true;
+        search:
+        while (true) {
+            if (descending) {
+                if (depth == this.network.N_MEETINGS || stopped()) {
+                    resume = depth == this.network.N_MEETINGS ? SOLVED : -1;
+                    if (depth == base) {
+                        return resume;
+                    }
+                    depth--;
+                    descending = false;
+                } else {
+                    openChoicePoint(depth);
+                }
+            }
+            if (this.progress != null) {
+                this.progress.report(depth, this.failures);
+            }
+            int index = this.meetingAt[depth];
+            if (!descending) {
+                if (this.propagation != SolverOptions.Propagation.NONE) {
+                    this.trail.pop();
+                    clearPruners(index, depth);
+                }
+                if (resume == SOLVED || resume < depth) {
+                    if (resume != SOLVED) {
+                        this.assigned[index] = false;
+                    }
+                    if (depth == base) {
+                        return resume;
+                    }
+                    depth--;
+                    continue;
+                }
+            }
+            MeetingDomain domain = this.domains.get(index);
+            int[] values = this.values[depth];
+            for (int i = this.nextValue[depth]; i < this.valueCount[depth]; i++) {
+                if (this.failures >= this.failLimit) {
+                    this.assigned[index] = false;
+                    resume = RESTART;
+                    break;
+                }
+                int offset = values[i];
+                this.assignment[index] = domain.toEpochDay(offset);
+                if (this.phase != null) {
+                    this.phase[index] = this.assignment[index];
+                }
+                if (this.nogoods != null) {
+                    int nogood = this.nogoods.check(index, this.assignment, this.assigned);
+                    if (nogood != -1) {
+                        for (int k = 0; k < this.nogoods.length(nogood) && this.conflicts != null; k++) {
+                            int m = this.nogoods.meeting(nogood, k);
+                            if (m != index) {
+                                setBit(this.conflicts[depth], this.depthOf[m]);
+                            }
+                        }
+                        this.failures++;
+                        continue;
+                    }
+                }
+                if (this.propagation == SolverOptions.Propagation.NONE) {
+                    int culprit = culprit(index);
+                    if (culprit != -1) {
+                        if (this.conflicts != null) {
+                            setBit(this.conflicts[depth], culprit);
+                        }
+                        this.failures++;
+                        continue;
+                    }
+                } else {
+                    this.trail.push();
+                    if (!assign(index, offset, depth)) {
+                        if (this.conflicts != null) {
+                            // whatever pruned the wiped out domain before this depth
+                            or(this.conflicts[depth], this.pruners[this.wipedOut], depth);
+                        }
+                        this.failures++;
+                        this.trail.pop();
+                        clearPruners(index, depth);
+                        continue;
+                    }
+                }
+                // descend, resuming from the next value once the subtree is searched
+                this.nextValue[depth] = i + 1;
+                depth++;
+                descending = true;
+                continue search;
+            }
+            if (resume != RESTART) {
+                this.assigned[index] = false;
+                resume = jumpBack(index, depth);
+            }
+            if (depth == base) {
+                return resume;
+            }
+            depth--;
+            descending = false;
+        }
+    }
+
+    /**
+     * Opens the choice point at the given depth: chooses its meeting, marks
+     * it assigned, and snapshots its ordered values.
+     */
+    private void openChoicePoint (int depth) {
+        int index = selectVariable();
+        orderValues(index, depth);
+        this.valueCount[depth] = this.domains.get(index).size();
+        this.nextValue[depth] = 0;
+        this.assigned[index] = true;
+        this.depthOf[index] = depth;
+        this.meetingAt[depth] = index;
+        if (this.conflicts != null) {
+            Arrays.fill(this.conflicts[depth], 0);
+        }
+    }
+
+    // Branching
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return The number of meetings assigned before the search starts.
+     */
+    int startDepth () {
+        return this.startDepth;
+    }
+
+    /**
+     * @return Whether or not every meeting is assigned before the search starts.
+     */
+    boolean isComplete () {
+        return this.startDepth == this.network.N_MEETINGS;
+    }
+
+    /**
+     * @return Whether or not another search of the same parallel search has
+     *         found a solution, so that this one may give up.
+     * @throws CancellationException If the stop flag is set
+     */
+    boolean stopped () {
+        if (this.stop != null && this.stop.get()) {
+            throw new CancellationException();
+        }
+        return this.done != null && this.done.get();
+    }
+
+    /**
+     * Chooses the meeting to branch on first, by the configured variable
+     * ordering, and orders its dates by the configured value ordering.
+     * @return The meeting, followed by the offsets of its dates in the order
+     *         they should be tried.
+     */
+    int[] branchingChoice () {
+        int meeting = selectVariable();
+        int n = this.domains.get(meeting).size();
+        int[] choice = new int[n + 1];
+        choice[0] = meeting;
+        System.arraycopy(orderValues(meeting, this.startDepth), 0, choice, 1, n);
+        return choice;
+    }
+
+    /**
+     * Creates an independent search over copies of this search's domains and
+     * assignment, in which the given meeting is also assigned the date at the
+     * given offset and that choice is propagated. This search is only read,
+     * so it may be branched from several threads at once while it is not
+     * itself running.
+     * @param meeting An unassigned meeting
+     * @param offset The offset of a date in its domain
+     * @return The new search, or null if the date is ruled out by the
+     *         assigned meetings or by propagation.
+     */
+    BacktrackingSearch branch (int meeting, int offset) {
+        List<MeetingDomain> copies = new ArrayList<>(this.domains.size());
+        for (MeetingDomain domain : this.domains) {
+            copies.add(new MeetingDomain(domain));
+        }
+        BacktrackingSearch child = new BacktrackingSearch(this.network, copies, this.options, this.stop, this.done,
+                this.assignment.clone(), this.assigned.clone());
+        int depth = child.startDepth++;
+        child.assigned[meeting] = true;
+        child.assignment[meeting] = copies.get(meeting).toEpochDay(offset);
+        child.depthOf[meeting] = depth;
+        child.meetingAt[depth] = meeting;
+        if (this.propagation == SolverOptions.Propagation.NONE) {
+            return child.culprit(meeting) == -1 ? child : null;
+        }
+        // the trail is at its base level, so the child's pruning is permanent
+        return child.assign(meeting, offset, depth) ? child : null;
+    }
+
+    // Backjumping
+    // -------------------------------------------------------------------------
+
+    /**
+     * Picks the depth to resume from once the given meeting's values have run
+     * out, handing the rest of its conflict set to that depth, and learns the
+     * conflict set's assignments as a nogood.
+     * @param meeting The meeting whose values ran out
+     * @param depth The depth at which it was being assigned
+     * @return The depth to resume from, or -1 if there is none.
+     */
+    private int jumpBack (int meeting, int depth) {
+        if (this.conflicts == null) {
+            // every shallower assignment is to blame
+            if (this.nogoods != null && depth > 0 && depth <= NogoodStore.MAX_LENGTH) {
+                for (int d = 0; d < depth; d++) {
+                    this.nogoodMeetings[d] = this.meetingAt[d];
+                    this.nogoodDays[d] = this.assignment[this.meetingAt[d]];
+                }
+                this.nogoods.add(this.nogoodMeetings, this.nogoodDays, depth);
+                reportNogoods();
+            }
+            return depth - 1;
+        }
+        long[] conflict = this.conflicts[depth];
+        // values pruned by earlier forward checks were never tried at all
+        or(conflict, this.pruners[meeting], depth);
+        int target = highestBit(conflict, depth);
+        if (target == -1) {
+            return -1;
+        }
+        or(this.conflicts[target], conflict, target);
+        if (this.nogoods != null) {
+            learn(conflict, target);
+        }
+        return target;
+    }
+
+    /**
+     * Learns the assignments at the depths of the given conflict set as a
+     * nogood, unless there are more than NogoodStore.MAX_LENGTH of them.
+     * @param conflict A conflict set, whose deepest depth is target
+     * @param target The deepest depth of the conflict set
+     */
+    private void learn (long[] conflict, int target) {
+        int length = 0;
+        for (int w = 0; w <= target >>> 6; w++) {
+            for (long bits = conflict[w]; bits != 0; bits &= bits - 1) {
+                if (length == NogoodStore.MAX_LENGTH) {
+                    return;
+                }
+                int meeting = this.meetingAt[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                this.nogoodMeetings[length] = meeting;
+                this.nogoodDays[length++] = this.assignment[meeting];
+            }
+        }
+        // ascending depths leave the target's assignment, the first undone, last
+        this.nogoods.add(this.nogoodMeetings, this.nogoodDays, length);
+        reportNogoods();
+    }
+
+    /**
+     * Publishes the nogood store's size and count of learned nogoods, if the
+     * options ask for progress.
+     */
+    private void reportNogoods () {
+        if (this.progress != null) {
+            this.progress.reportNogoods(this.nogoods.size(), this.nogoods.learned());
+        }
+    }
+
+    /**
+     * @param meeting A meeting with a newly assigned day
+     * @return The shallowest depth of an assigned neighbor whose constraint
+     *         the day violates, or -1 if it is consistent.
+     */
+    private int culprit (int meeting) {
+        long day = this.assignment[meeting];
+        int culprit = -1;
+        int[] neighbors = this.network.NEIGHBORS[meeting], ops = this.network.NEIGHBOR_OPS[meeting];
+        for (int k = 0; k < neighbors.length; k++) {
+            int neighbor = neighbors[k];
+            if (this.assigned[neighbor] && !DateConstraint.isSatisfied(ops[k], day, this.assignment[neighbor])
+                    && (culprit == -1 || this.depthOf[neighbor] < culprit)) {
+                culprit = this.depthOf[neighbor];
+            }
+        }
+        return culprit;
+    }
+
+    /**
+     * Removes the given depth from the pruners of the given meeting's
+     * neighbors, the only meetings its forward checks can prune.
+     */
+    private void clearPruners (int meeting, int depth) {
+        if (this.pruners == null) {
+            return;
+        }
+        for (int neighbor : this.network.NEIGHBORS[meeting]) {
+            this.pruners[neighbor][depth >>> 6] &= ~(1L << depth);
+        }
+    }
+
+    private static void setBit (long[] set, int bit) {
+        set[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Adds the bits of src below limit to dest.
+     */
+    private static void or (long[] dest, long[] src, int limit) {
+        int words = limit >>> 6;
+        for (int w = 0; w < words; w++) {
+            dest[w] |= src[w];
+        }
+        if ((limit & 63) != 0) {
+            dest[words] |= src[words] & ((1L << limit) - 1);
+        }
+    }
+
+    /**
+     * @return The highest bit of the set below limit, or -1 if there is none.
+     */
+    private static int highestBit (long[] set, int limit) {
+        int w = limit >>> 6;
+        long bits = (limit & 63) != 0 ? set[w] & ((1L << limit) - 1) : 0;
+        while (true) {
+            if (bits != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            if (--w < 0) {
+                return -1;
+            }
+            bits = set[w];
+        }
+    }
+
+    // Variable Ordering
+    // -------------------------------------------------------------------------
+
+    /**
+     * Chooses the next meeting to assign according to the configured
+     * variable ordering. Ties are broken by the lowest index, or uniformly at
+     * random when restarting.
+     * @return The index of an unassigned meeting.
+     */
+    private int selectVariable () {
+        int best = -1, bestSize = 0, bestDegree = 0, ties = 1;
+        for (int m = 0; m < this.network.N_MEETINGS; m++) {
+            if (this.assigned[m]) {
+                continue;
+            }
+            if (this.variableOrdering == SolverOptions.VariableOrdering.INDEX) {
+                return m;
+            }
+            int size = this.domains.get(m).size();
+            if (best == -1) {
+                best = m;
+                bestSize = size;
+                bestDegree = -1;
+                continue;
+            }
+            switch (this.variableOrdering) {
+            case MRV:
+                if (size < bestSize) {
+                    best = m;
+                    bestSize = size;
+                    ties = 1;
+                } else if (size == bestSize && breakTie(++ties)) {
+                    best = m;
+                }
+                break;
+            case MRV_DEGREE:
+                if (size < bestSize) {
+                    best = m;
+                    bestSize = size;
+                    bestDegree = -1;
+                    ties = 1;
+                } else if (size == bestSize) {
+                    // dynamic degrees are only computed when they decide a tie
+                    if (bestDegree == -1) {
+                        bestDegree = unassignedDegree(best);
+                    }
+                    int degree = unassignedDegree(m);
+                    if (degree > bestDegree) {
+                        best = m;
+                        bestDegree = degree;
+                        ties = 1;
+                    } else if (degree == bestDegree && breakTie(++ties)) {
+                        best = m;
+                    }
+                }
+                break;
+            default:
+                // dom/deg: compare size / degree by cross-multiplying, counting
+                // a meeting with no unassigned neighbors as having degree 1
+                if (bestDegree == -1) {
+                    bestDegree = Math.max(1, unassignedDegree(best));
+                }
+                int degree = Math.max(1, unassignedDegree(m));
+                long lhs = (long) size * bestDegree, rhs = (long) bestSize * degree;
+                if (lhs < rhs || lhs == rhs && breakTie(++ties)) {
+                    if (lhs < rhs) {
+                        ties = 1;
+                    }
+                    best = m;
+                    bestSize = size;
+                    bestDegree = degree;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decides whether the latest of the given number of tied candidates
+     * replaces the current choice, which keeps the lowest index unless
+     * restarting, and otherwise keeps each candidate with equal probability.
+     * @param ties The number of tied candidates so far, including the latest
+     * @return Whether or not to choose the latest candidate.
+     */
+    private boolean breakTie (int ties) {
+        return this.phase != null && this.random.nextInt(ties) == 0;
+    }
+
+    /**
+     * @param meeting A meeting index
+     * @return The number of constraints between the given meeting and
+     *         unassigned meetings.
+     */
+    private int unassignedDegree (int meeting) {
+        int degree = 0;
+        for (int neighbor : this.network.NEIGHBORS[meeting]) {
+            if (!this.assigned[neighbor]) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    // Value Ordering
+    // -------------------------------------------------------------------------
+
+    /**
+     * Snapshots the domain of the given meeting into the buffer for this depth,
+     * in the order given by the configured value ordering.
+     * @param meeting The meeting about to be assigned
+     * @param depth The depth of the search, selecting which buffer to use
+     * @return The buffer, whose first size() entries are the offsets to try
+     */
+    private int[] orderValues (int meeting, int depth) {
+        MeetingDomain domain = this.domains.get(meeting);
+        int[] values = this.values[depth];
+        if (values == null || values.length < domain.size()) {
+            values = this.values[depth] = new int[domain.span()];
+        }
+        int n = domain.copyOffsetsTo(values);
+        switch (this.valueOrdering) {
+        case REVERSE:
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int swap = values[i];
+                values[i] = values[j];
+                values[j] = swap;
+            }
+            break;
+        case LEAST_CONSTRAINING:
+            if (this.scores.length < n) {
+                this.scores = new long[domain.span()];
+            }
+            if (this.phase != null) {
+                // equally constraining values are then tried in random order
+                shuffle(values, n);
+            }
+            // pack each value's score above its chronological position, so
+            // sorting orders by score and then chronologically
+            for (int i = 0; i < n; i++) {
+                this.scores[i] = ((long) valuesRuledOut(meeting, domain.toEpochDay(values[i])) << 32) | i;
+            }
+            Arrays.sort(this.scores, 0, n);
+            for (int i = 0; i < n; i++) {
+                this.scores[i] = values[(int) this.scores[i]];
+            }
+            for (int i = 0; i < n; i++) {
+                values[i] = (int) this.scores[i];
+            }
+            break;
+        case RANDOM:
+            shuffle(values, n);
+            break;
+        default:
+            break;
+        }
+        if (this.phase != null && this.phase[meeting] != Long.MIN_VALUE && domain.contains(this.phase[meeting])) {
+            // phase saving: the date from the last run goes first
+            long saved = domain.offsetOf(this.phase[meeting]);
+            int i = 0;
+            while (values[i] != saved) {
+                i++;
+            }
+            System.arraycopy(values, 0, values, 1, i);
+            values[0] = (int) saved;
+        }
+        return values;
+    }
+
+    /**
+     * Puts the first n values into a random order drawn from the seeded
+     * generator.
+     */
+    private void shuffle (int[] values, int n) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = this.random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    /**
+     * Counts the values that assigning the given day to the given meeting
+     * would rule out of its unassigned neighbors' domains, computed from the
+     * number of each neighbor's values before, on, and after that day.
+     * @param meeting The meeting being assigned
+     * @param day The epoch day being considered for it
+     * @return The total number of neighbor values inconsistent with the day.
+     */
+    private int valuesRuledOut (int meeting, long day) {
+        int ruledOut = 0;
+        int[] neighbors = this.network.NEIGHBORS[meeting], ops = this.network.NEIGHBOR_OPS[meeting];
+        for (int k = 0; k < neighbors.length; k++) {
+            if (this.assigned[neighbors[k]]) {
+                continue;
+            }
+            MeetingDomain neighborDomain = this.domains.get(neighbors[k]);
+            int before = neighborDomain.countBefore(day);
+            int on = neighborDomain.contains(day) ? 1 : 0;
+            int after = neighborDomain.size() - before - on;
+            // ops are oriented from meeting, so neighbor values before the day
+            // are supported when meeting > neighbor, i.e., when GT is in the op
+            int supported = ((ops[k] & DateConstraint.GT) != 0 ? before : 0)
+                          + ((ops[k] & DateConstraint.EQ) != 0 ? on : 0)
+                          + ((ops[k] & DateConstraint.LT) != 0 ? after : 0);
+            ruledOut += neighborDomain.size() - supported;
+        }
+        return ruledOut;
+    }
+
+    // Propagation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reduces the given meeting's domain to the given offset and propagates
+     * that choice at the configured level.
+     * @param meeting The meeting being assigned
+     * @param offset The offset of its new date
+     * @param depth The depth at which it is being assigned
+     * @return false if propagation wiped out some domain, true otherwise.
+     */
+    private boolean assign (int meeting, int offset, int depth) {
+        MeetingDomain domain = this.domains.get(meeting);
+        if (domain.size() != 1) {
+            this.trail.save(meeting);
+            domain.retainOffsets(offset, offset);
+        }
+        if (this.propagation == SolverOptions.Propagation.FORWARD_CHECKING) {
+            return forwardCheck(meeting, depth);
+        }
+        return this.arcConsistency.propagateFrom(meeting, this.trail);
+    }
+
+    /**
+     * Prunes the domains of the unassigned neighbors of the given, newly
+     * assigned meeting of every value inconsistent with its date, recording
+     * the depth as a pruner of each neighbor it changes when backjumping.
+     * @param meeting The meeting that was just assigned
+     * @param depth The depth at which it was assigned
+     * @return false if some neighbor's domain was wiped out, true otherwise.
+     */
+    private boolean forwardCheck (int meeting, int depth) {
+        for (int arc : this.network.ARCS_INTO[meeting]) {
+            int tail = this.network.ARC_TAIL[arc];
+            if (this.assigned[tail] || !this.arcConsistency.revise(arc, this.trail)) {
+                continue;
+            }
+            if (this.pruners != null) {
+                setBit(this.pruners[tail], depth);
+            }
+            if (this.domains.get(tail).isEmpty()) {
+                this.wipedOut = tail;
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
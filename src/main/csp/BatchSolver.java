@@ -0,0 +1,185 @@
+package main.csp;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Solves batches of independent SchedulingProblems concurrently on a fixed
+ * pool of worker threads, which is created once and reused by every batch.
+ * Each problem is solved as by CSPSolver.solve with this solver's options,
+ * may be given a timeout after which it gives up, and is isolated from the
+ * others: an exception thrown while solving one is reported in its result
+ * rather than failing the batch. A BatchSolver should be closed once it is
+ * no longer needed.
+ */
+public class BatchSolver implements AutoCloseable {
+
+    /**
+     * The outcome of solving one problem of a batch.
+     */
+    public enum Status {
+        /** A solution was found */
+        SOLVED,
+        /** The problem was proven to have no solution */
+        UNSATISFIABLE,
+        /** The problem's timeout expired before it was decided */
+        TIMED_OUT,
+        /** Solving the problem threw an exception */
+        FAILED
+    }
+
+    /**
+     * The result of one problem of a batch.
+     */
+    public static class Result {
+
+        public final int INDEX;
+        public final Status STATUS;
+        public final List<LocalDate> SOLUTION;
+        public final Throwable ERROR;
+
+        /**
+         * Constructs a new result.
+         * @param index The position of the problem in its batch
+         * @param status The outcome of solving it
+         * @param solution Its solution if SOLVED, otherwise null
+         * @param error The exception thrown if FAILED, otherwise null
+         */
+        Result (int index, Status status, List<LocalDate> solution, Throwable error) {
+            this.INDEX = index;
+            this.STATUS = status;
+            this.SOLUTION = solution;
+            this.ERROR = error;
+        }
+
+    }
+
+    private final SolverOptions options;
+    private final Duration timeout;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Constructs a new batch solver without timeouts.
+     * @param options Configuration of every solve, whose own executor, if
+     *                any, must not be this solver's pool
+     * @param threads The number of worker threads
+     */
+    public BatchSolver (SolverOptions options, int threads) {
+        this(options, threads, null);
+    }
+
+    /**
+     * Constructs a new batch solver.
+     * @param options Configuration of every solve, whose own executor, if
+     *                any, must not be this solver's pool
+     * @param threads The number of worker threads
+     * @param timeout How long each problem may be solved for, counted from
+     *                when a worker starts on it, or null for no limit
+     */
+    public BatchSolver (SolverOptions options, int threads, Duration timeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A batch solver needs at least one thread");
+        }
+        this.options = options;
+        this.timeout = timeout;
+        this.workers = Executors.newFixedThreadPool(threads, daemon("csp-batch"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemon("csp-batch-timer"));
+    }
+
+    private static ThreadFactory daemon (String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Solves every problem of the batch.
+     * @param problems The problems to solve
+     * @return The result of each problem, in the order given.
+     * @throws InterruptedException If interrupted while waiting, in which
+     *         case the unfinished problems are stopped
+     */
+    public List<Result> solveAll (List<SchedulingProblem> problems) throws InterruptedException {
+        Result[] results = new Result[problems.size()];
+        solveEach(problems, result -> results[result.INDEX] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Solves every problem of the batch, handing each result to the given
+     * consumer, on the calling thread, as soon as it is ready.
+     * @param problems The problems to solve
+     * @param onResult Consumer of the results, in the order they finish
+     * @throws InterruptedException If interrupted while waiting, in which
+     *         case the unfinished problems are stopped
+     */
+    public void solveEach (List<SchedulingProblem> problems, Consumer<Result> onResult) throws InterruptedException {
+        CompletionService<Result> completion = new ExecutorCompletionService<>(this.workers);
+        AtomicBoolean[] stops = new AtomicBoolean[problems.size()];
+        List<Future<Result>> futures = new ArrayList<>(stops.length);
+        for (int i = 0; i < stops.length; i++) {
+            int index = i;
+            stops[i] = new AtomicBoolean();
+            futures.add(completion.submit(() -> solve(index, problems.get(index), stops[index])));
+        }
+        try {
+            for (int i = 0; i < stops.length; i++) {
+                onResult.accept(completion.take().get());
+            }
+        } catch (InterruptedException e) {
+            // problems still queued are dropped, and running ones stopped
+            for (int i = 0; i < stops.length; i++) {
+                stops[i].set(true);
+                futures.get(i).cancel(true);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            // solve reports every exception in its result
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Solves one problem, stopping it once its timeout expires.
+     */
+    private Result solve (int index, SchedulingProblem problem, AtomicBoolean stop) {
+        ScheduledFuture<?> deadline = null;
+        try {
+            if (this.timeout != null) {
+                deadline = this.timer.schedule(() -> stop.set(true), this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            List<LocalDate> solution = CSPSolver.solve(problem.N_MEETINGS, problem.RANGE_START, problem.RANGE_END,
+                    problem.CONSTRAINTS, this.options, stop);
+            if (solution != null) {
+                return new Result(index, Status.SOLVED, solution, null);
+            }
+            return new Result(index, Status.UNSATISFIABLE, null, null);
+        } catch (CancellationException e) {
+            // the solve only gives up this way once stopped before it decided
+            return new Result(index, Status.TIMED_OUT, null, null);
+        } catch (RuntimeException e) {
+            return new Result(index, Status.FAILED, null, e);
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads once the batches already submitted finish.
+     */
+    @Override
+    public void close () {
+        this.workers.shutdown();
+        this.timer.shutdownNow();
+    }
+
+}
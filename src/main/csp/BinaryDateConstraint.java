@@ -14,6 +14,7 @@ import java.util.*;
 public class BinaryDateConstraint extends DateConstraint {
 
     public final int R_VAL;
+    public final int REVERSE_OP_CODE;
     
     /**
      * Constructs a new BinaryDateConstraint relating two Meeting Variable indexes
@@ -31,6 +32,19 @@ public class BinaryDateConstraint extends DateConstraint {
         }
         
         this.R_VAL = rVal;
+        this.REVERSE_OP_CODE = reverseOpCode(this.OP_CODE);
+    }
+    
+    /**
+     * Returns whether the constraint holds when read from R_VAL's side, i.e.,
+     * whether rightDay getSymmetricalOp() leftDay, without allocating the
+     * reversed constraint.
+     * @param rightDay The epoch day of the R_VAL meeting
+     * @param leftDay The epoch day of the L_VAL meeting
+     * @return Whether or not the reversed constraint is satisfied.
+     */
+    public boolean isReverseSatisfiedBy (long rightDay, long leftDay) {
+        return isSatisfied(this.REVERSE_OP_CODE, rightDay, leftDay);
     }
     
     /**
@@ -44,19 +58,34 @@ public class BinaryDateConstraint extends DateConstraint {
     }
     
     
+    /**
+     * Returns this constraint in canonical orientation, i.e., with the lower
+     * meeting index as its lVal, reversing it if necessary. Ex:
+     * 1 > 0 becomes 0 < 1, while 0 < 1 is returned as is.
+     * @return An equivalent BinaryDateConstraint with L_VAL < R_VAL.
+     */
+    public BinaryDateConstraint canonical () {
+        return this.L_VAL < this.R_VAL ? this : this.getReverse();
+    }
+    
     @Override
     public boolean equals (Object other) {
         if (this == other) { return true; }
-        if (this.getClass() != other.getClass()) { return false; }
+        if (other == null || this.getClass() != other.getClass()) { return false; }
         BinaryDateConstraint otherDC = (BinaryDateConstraint) other;
-        BinaryDateConstraint reversed = this.getReverse();
-        return (this.L_VAL == otherDC.L_VAL && this.OP.equals(otherDC.OP) && this.R_VAL == otherDC.R_VAL) ||
-               (reversed.R_VAL == otherDC.L_VAL && reversed.OP.equals(otherDC.OP) && reversed.L_VAL == otherDC.R_VAL);
+        return (this.L_VAL == otherDC.L_VAL && this.OP_CODE == otherDC.OP_CODE && this.R_VAL == otherDC.R_VAL) ||
+               (this.R_VAL == otherDC.L_VAL && this.REVERSE_OP_CODE == otherDC.OP_CODE && this.L_VAL == otherDC.R_VAL);
     }
     
     @Override
     public int hashCode () {
-        return Objects.hash(this.L_VAL) * Objects.hash(this.OP) * Objects.hash(this.R_VAL);
+        // hash the canonical orientation, so that equal constraints written
+        // in either direction hash alike
+        boolean canonical = this.L_VAL < this.R_VAL;
+        int lVal = canonical ? this.L_VAL : this.R_VAL,
+            rVal = canonical ? this.R_VAL : this.L_VAL,
+            opCode = canonical ? this.OP_CODE : this.REVERSE_OP_CODE;
+        return Objects.hash(lVal, opCode, rVal);
     }
     
     @Override
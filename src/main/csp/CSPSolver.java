@@ -2,6 +2,10 @@ package main.csp;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 /**
  * CSP: Calendar Satisfaction Problem Solver Provides a solution for scheduling
@@ -32,95 +36,303 @@ public class CSPSolver {
 	 */
 	public static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
 			Set<DateConstraint> constraints) {
-		List<LocalDate> assignment = new ArrayList<LocalDate>();
-		List<MeetingDomain> domains = generateDomains(nMeetings, rangeStart, rangeEnd);
-		// call pre-processing methods
-		nodeConsistency(domains, constraints);
-		arcConsistency(domains, constraints);
-		return backTracking(assignment, domains, nMeetings, constraints);
+		return solve(nMeetings, rangeStart, rangeEnd, constraints, new SolverOptions());
 	}
 
 	/**
-	 * Private method used to recursively find the solution as to which dates can be
-	 * assigned to some number and set of meetings. Ex: it will return a list
-	 * similar to this [01-10-2022,01-11-2022]
-	 * 
-	 * @param assignment a list of local dates (List<LocalDate>) that store a date
-	 *                   at each index, where the index number represents the
-	 *                   meeting number
-	 * @param domains    a list of meeting domains (List<MeetingDomain>) that store
-	 *                   all valid dates that a meeting can be
-	 * 
-	 * @param nMeetings  an integer representing the number of meetings that need
-	 *                   dates assigned to them
+	 * Variant of solve in which the behavior of the backtracking search is
+	 * configured by the given options.
 	 * 
-	 * @return A list of local dates (List<LocalDate>) called result that stores the
-	 *         correct date assigned to each meeting
+	 * @param nMeetings   The number of meetings that must be scheduled, indexed
+	 *                    from 0 to n-1
+	 * @param rangeStart  The start date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param rangeEnd    The end date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param constraints Date constraints on the meeting times (unary and binary
+	 *                    for this assignment)
+	 * @param options     Configuration of the search, such as its propagation level
+	 * @return A list of dates that satisfies each of the constraints for each of
+	 *         the n meetings, indexed by the variable they satisfy, or null if no
+	 *         solution exists.
+	 */
+	public static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options) {
+		return solve(nMeetings, rangeStart, rangeEnd, constraints, options, new AtomicBoolean());
+	}
+
+	/**
+	 * Variant of solve that gives up once the given flag is set, e.g., by a
+	 * timeout.
 	 * 
+	 * @param nMeetings   The number of meetings that must be scheduled, indexed
+	 *                    from 0 to n-1
+	 * @param rangeStart  The start date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param rangeEnd    The end date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param constraints Date constraints on the meeting times
+	 * @param options     Configuration of the search, such as its propagation level
+	 * @param stop        Flag that, once set, makes the solve give up; it may
+	 *                    also be set by the solve itself
+	 * @return A list of dates that satisfies each of the constraints for each of
+	 *         the n meetings, indexed by the variable they satisfy, or null if no
+	 *         solution exists.
+	 * @throws CancellationException If the solve gave up because the stop flag
+	 *         was set before it was decided
 	 */
-	private static List<LocalDate> backTracking(List<LocalDate> assignment, List<MeetingDomain> domains, int nMeetings,
-			Set<DateConstraint> constraints) {
-		// call helper and check that every meeting is assigned and assignments are
-		// consistent
-		if (checkAssignment(constraints, assignment) && assignment.size() == nMeetings) {
-			return assignment;
+	static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options, AtomicBoolean stop) {
+		// compile constraints, which folds unary and merges binary ones
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, constraints);
+		if (network.UNSATISFIABLE) {
+			return null;
 		}
-		// next index is the current size of the list
-		int index = assignment.size();
-		for (LocalDate date : domains.get(index).domainValues) {
-			// add date to meeting
-			assignment.add(index, date);
+		List<MeetingDomain> domains = generateDomains(nMeetings, rangeStart, rangeEnd);
+		// call pre-processing methods
+		network.applyUnary(domains);
+		long[] assignment = options.portfolio().isEmpty()
+				? solveComponents(network, domains, options, stop)
+				: solvePortfolio(network, domains, options, stop);
+		if (assignment == null) {
+			return null;
+		}
+		// dates are only materialized once a full solution has been found
+		List<LocalDate> result = new ArrayList<>(nMeetings);
+		for (long day : assignment) {
+			result.add(LocalDate.ofEpochDay(day));
+		}
+		return result;
+	}
 
-			if (checkAssignment(constraints, assignment)) {
-				// recursive call to backTracking
-				List<LocalDate> result = backTracking(assignment, domains, nMeetings, constraints);
-				if (result != null) {
-					return result;
+	/**
+	 * Races every configuration of the options' portfolio on its own copy of
+	 * the domains. The first configuration to finish, whether with a solution
+	 * or a proof that there is none, decides the result, and the stop flags of
+	 * all others are set so that they give up cooperatively. A configuration
+	 * that throws drops out of the race, which only fails once all have.
+	 * Workers block their threads while they wait for their own components,
+	 * so the race's executor must not be a bounded pool that the
+	 * configurations also solve components on.
+	 * 
+	 * @param network The compiled constraints, shared read-only by all workers
+	 * @param domains Meeting-indexed MeetingDomains, already node consistent
+	 * @param options Configuration holding the portfolio and its executor
+	 * @param stop    Flag that, once set, stops every configuration
+	 * @return Epoch days of a solution indexed by meeting, or null if none exists.
+	 * @throws CancellationException If stopped, or interrupted, first
+	 */
+	private static long[] solvePortfolio(ConstraintNetwork network, List<MeetingDomain> domains,
+			SolverOptions options, AtomicBoolean stop) {
+		List<SolverOptions> portfolio = options.portfolio();
+		Executor executor = options.executor() != null ? options.executor() : task -> {
+			Thread worker = new Thread(task, "csp-portfolio");
+			worker.setDaemon(true);
+			worker.start();
+		};
+		AtomicBoolean decided = new AtomicBoolean();
+		AtomicInteger failed = new AtomicInteger();
+		RuntimeException[] failures = new RuntimeException[portfolio.size()];
+		CompletableFuture<long[]> first = new CompletableFuture<>();
+		AtomicBoolean[] stops = new AtomicBoolean[portfolio.size()];
+		for (int i = 0; i < stops.length; i++) {
+			stops[i] = new AtomicBoolean();
+		}
+		for (int i = 0; i < stops.length; i++) {
+			int worker = i;
+			List<MeetingDomain> copies = new ArrayList<>(domains.size());
+			for (MeetingDomain domain : domains) {
+				copies.add(new MeetingDomain(domain));
+			}
+			executor.execute(() -> {
+				long[] result = null;
+				RuntimeException failure = null;
+				try {
+					if (stops[worker].get()) {
+						throw new CancellationException();
+					}
+					result = solveComponents(network, copies, portfolio.get(worker), stops[worker]);
+				} catch (RuntimeException e) {
+					failure = e;
+				}
+				if (failure != null) {
+					// a failed worker only decides the race once all others have failed too
+					failures[worker] = failure;
+					if (failed.incrementAndGet() == stops.length && decided.compareAndSet(false, true)) {
+						for (int j = 1; j < failures.length; j++) {
+							failures[0].addSuppressed(failures[j]);
+						}
+						first.completeExceptionally(failures[0]);
+					}
+				} else if (decided.compareAndSet(false, true)) {
+					// workers stopped by the winner find the race already decided
+					for (AtomicBoolean other : stops) {
+						other.set(true);
+					}
+					first.complete(result);
+				}
+			});
+		}
+		while (true) {
+			try {
+				return first.get(10, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// workers only watch their own flags, so relay the caller's
+				if (stop.get()) {
+					for (AtomicBoolean worker : stops) {
+						worker.set(true);
+					}
+				}
+			} catch (InterruptedException e) {
+				for (AtomicBoolean worker : stops) {
+					worker.set(true);
 				}
+				Thread.currentThread().interrupt();
+				throw new CancellationException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new CompletionException(e.getCause());
 			}
-			assignment.remove(index);
 		}
-		return null;
 	}
 
 	/**
-	 * A helper method that checks if assignments are consistent with each meeting's
-	 * set of constraints and will return a boolean value.
-	 * 
-	 * @param constraints  a set of DateConstraints (Set<DateConstraint> constraint)
-	 *                     that are can be unary or binary meeting constraints
-	 * 
-	 * @param meetingDates a list of Local Dates (List<LocalDate> which is the list
-	 *                     of all possible dates for a meeting
-	 * 
-	 * @return A boolean value where true means that the assignment is consistent
-	 *         and false if it is inconsistent
+	 * Splits a compiled network into the connected components of its binary
+	 * constraint graph and solves each independently, in parallel if the
+	 * options give an executor, merging their solutions. As soon as any
+	 * component is found to be unsatisfiable, the others are stopped.
 	 * 
+	 * @param network The compiled constraints
+	 * @param domains Meeting-indexed MeetingDomains, already node consistent
+	 * @param options Configuration of the solve
+	 * @param stop    Flag that, once set, makes every component give up, and
+	 *                which is set when any component is unsatisfiable
+	 * @return Epoch days of a solution indexed by meeting, or null if none exists.
+	 * @throws CancellationException If stopped before any component was found
+	 *         to be unsatisfiable
 	 */
-	private static boolean checkAssignment(Set<DateConstraint> constraints, List<LocalDate> meetingDates) {
-		for (DateConstraint constraint : constraints) {
-			if (constraint.ARITY == 1) {
-				// unary
-				UnaryDateConstraint unary = (UnaryDateConstraint) constraint;
-				if (unary.L_VAL < meetingDates.size()) {
-					// calls DateConstraint's isSatisfied() method
-					if (!unary.isSatisfiedBy(meetingDates.get(unary.L_VAL), unary.R_VAL)) {
-						// if inconsistent
-						return false;
-					}
+	private static long[] solveComponents(ConstraintNetwork network, List<MeetingDomain> domains,
+			SolverOptions options, AtomicBoolean stop) {
+		for (MeetingDomain domain : domains) {
+			if (domain.isEmpty()) {
+				return null;
+			}
+		}
+		int[][] components = network.components();
+		if (components.length <= 1) {
+			return solveNetwork(network, domains, options, stop);
+		}
+		long[] assignment = new long[network.N_MEETINGS];
+		List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+		// tells the components stopped by an unsatisfiable one from a caller's stop
+		AtomicBoolean unsatisfiable = new AtomicBoolean();
+		for (int[] component : components) {
+			if (component.length == 1) {
+				// an unconstrained meeting takes any date left by its unary constraints
+				MeetingDomain domain = domains.get(component[0]);
+				assignment[component[0]] = domain.toEpochDay(domain.firstOffset());
+				continue;
+			}
+			BooleanSupplier task = () -> {
+				if (unsatisfiable.get()) {
+					return false;
+				}
+				if (stop.get()) {
+					throw new CancellationException();
+				}
+				List<MeetingDomain> subDomains = new ArrayList<>(component.length);
+				for (int m : component) {
+					subDomains.add(domains.get(m));
+				}
+				long[] subAssignment = solveNetwork(network.restrict(component), subDomains, options, stop);
+				if (subAssignment == null) {
+					unsatisfiable.set(true);
+					stop.set(true);
+					return false;
+				}
+				for (int i = 0; i < component.length; i++) {
+					assignment[component[i]] = subAssignment[i];
+				}
+				return true;
+			};
+			if (options.executor() == null) {
+				if (!task.getAsBoolean()) {
+					return null;
 				}
 			} else {
-				// binary
-				BinaryDateConstraint binary = (BinaryDateConstraint) constraint;
-				if (binary.L_VAL < meetingDates.size() && binary.R_VAL < meetingDates.size()) {
-					if (!binary.isSatisfiedBy(meetingDates.get(binary.L_VAL), meetingDates.get(binary.R_VAL))) {
-						// if inconsistent
-						return false;
-					}
+				pending.add(CompletableFuture.supplyAsync(task::getAsBoolean, options.executor()));
+			}
+		}
+		// each failing component sets stop, so the others finish promptly
+		for (CompletableFuture<Boolean> component : pending) {
+			try {
+				if (!component.join()) {
+					return null;
+				}
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof CancellationException && unsatisfiable.get()) {
+					return null;
 				}
+				stop.set(true);
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
 			}
 		}
-		return true;
+		return assignment;
+	}
+
+	/**
+	 * Routes a compiled network, whose domains already satisfy its unary
+	 * constraints, to the engine best suited to its shape: Simple Temporal
+	 * Problems are solved by shortest paths, acyclic constraint graphs by
+	 * directional arc consistency without backtracking, graphs made acyclic by
+	 * removing a small cycle cutset by conditioning on that cutset, pure !=
+	 * networks by DSatur graph coloring, and all others by backtracking search,
+	 * after arc consistency.
+	 * 
+	 * @param network The compiled constraints
+	 * @param domains Meeting-indexed MeetingDomains
+	 * @param options Configuration of the solve
+	 * @param stop    Flag that, once set, makes any search give up, or null
+	 * @return Epoch days of a solution indexed by meeting, or null if none exists.
+	 */
+	private static long[] solveNetwork(ConstraintNetwork network, List<MeetingDomain> domains,
+			SolverOptions options, AtomicBoolean stop) {
+		if (options.engine() == SolverOptions.Engine.AUTO && STPSolver.qualifies(network)) {
+			STPSolver stp = new STPSolver(network, domains);
+			return stp.solve() ? stp.earliest() : null;
+		}
+		if (options.engine() == SolverOptions.Engine.AUTO && TreeSolver.qualifies(network)) {
+			return new TreeSolver(network, domains, options).solve();
+		}
+		ArcConsistency preprocessing = new ArcConsistency(network, domains, options.arcConsistency(),
+				options.allDifferent());
+		if (!preprocessing.propagate(null)) {
+			// pre-processing already proved there is no solution
+			return null;
+		}
+		for (MeetingDomain domain : domains) {
+			if (domain.isEmpty()) {
+				return null;
+			}
+		}
+		if (options.engine() == SolverOptions.Engine.AUTO) {
+			int[] cutset = CutsetSolver.cutset(network, domains);
+			if (cutset != null) {
+				return new CutsetSolver(network, domains, options, cutset, stop).solve();
+			}
+			if (DSaturSolver.qualifies(network, domains)) {
+				return new DSaturSolver(network, domains, stop).solve();
+			}
+		}
+		if (options.parallelism() > 1) {
+			return ParallelSearch.solve(network, domains, options, stop);
+		}
+		return new BacktrackingSearch(network, domains, options, stop).solve();
 	}
 
 	/**
@@ -132,12 +344,8 @@ public class CSPSolver {
 	 * @return The List of Meeting-indexed MeetingDomains.
 	 */
 	private static List<MeetingDomain> generateDomains(int n, LocalDate startRange, LocalDate endRange) {
-		List<MeetingDomain> domains = new ArrayList<>();
-		while (n > 0) {
-			domains.add(new MeetingDomain(startRange, endRange));
-			n--;
-		}
-		return domains;
+		// every domain shares one bitset of the range until it is first pruned
+		return MeetingDomain.fullRange(n, startRange, endRange);
 	}
 
 	// Filtering Operations
@@ -155,25 +363,9 @@ public class CSPSolver {
 	 *                    the *unary* constraints!
 	 */
 	public static void nodeConsistency(List<MeetingDomain> varDomains, Set<DateConstraint> constraints) {
-		for (DateConstraint constraint : constraints) {
-			// only need node consistency pre-processing for unary constraints
-			if (constraint.ARITY == 1) {
-				UnaryDateConstraint unary = (UnaryDateConstraint) constraint;
-				MeetingDomain domain = varDomains.get(constraint.L_VAL);
-				// to prevent concurrency issues
-				Set<LocalDate> copyOfDomain = new HashSet<>(domain.domainValues);
-				for (LocalDate value : domain.domainValues) {
-					// remove if inconsistent
-					if (!unary.isSatisfiedBy(value, unary.R_VAL)) {
-						copyOfDomain.remove(value);
-					}
-				}
-				// set the original to the copy
-				domain.domainValues = copyOfDomain;
-
-			}
-		}
-
+		// every unary constraint on a meeting is first folded into one range of
+		// allowed days plus the days excluded from it
+		new ConstraintNetwork(varDomains.size(), constraints).applyUnary(varDomains);
 	}
 
 	/**
@@ -188,128 +380,24 @@ public class CSPSolver {
 	 *                    the *binary* constraints using the AC-3 algorithm!
 	 */
 	public static void arcConsistency(List<MeetingDomain> varDomains, Set<DateConstraint> constraints) {
-
-		HashSet<Arc> arcSet = new HashSet<>();
-		for (DateConstraint constraint : constraints) {
-			// only need arc consistency for binary constraints
-			if (constraint.ARITY == 2) {
-				BinaryDateConstraint binary = (BinaryDateConstraint) constraint;
-				// create arc set with meeting indexes and constraints
-				Arc forward = new Arc(binary.L_VAL, binary.R_VAL, constraint);
-				Arc back = new Arc(binary.R_VAL, binary.L_VAL, binary.getReverse());
-				arcSet.add(forward);
-				arcSet.add(back);
-			}
-
-		}
-		// to avoid concurrency issues
-		HashSet<Arc> copyOfArcSet = new HashSet<>(arcSet);
-		while (!arcSet.isEmpty()) {
-			// pop arc
-			Arc arcNext = arcSet.iterator().next();
-			arcSet.remove(arcNext);
-
-			if (removeInconsistencies(arcNext, varDomains)) {
-				for (Arc arc : copyOfArcSet) {
-					// find and add neighbors
-					if (arcNext.TAIL == arc.HEAD) {
-						arcSet.add(arc);
-					}
-				}
-			}
-		}
+		arcConsistency(varDomains, constraints, new SolverOptions().arcConsistency());
 	}
 
 	/**
-	 * Helper method that will be used to do AC-3 pre-processing. It will
-	 * 
-	 * @param an         arc an arc is constructed with an integer representing the
-	 *                   tail and head and a DateConstraint called constriant
-	 * @param varDomains List of MeetingDomains in which index i corresponds to D_i
-	 * 
+	 * Variant of arcConsistency in which the algorithm used to revise arcs is
+	 * specified.
 	 * 
+	 * @param varDomains  List of MeetingDomains in which index i corresponds to D_i
+	 * @param constraints Set of DateConstraints specifying how the domains should
+	 *                    be constrained, of which only the binary ones are processed
+	 * @param algorithm   How each arc is revised, e.g., AC-3 or AC-2001
 	 */
-	private static boolean removeInconsistencies(Arc arc, List<MeetingDomain> varDomains) {
-		// get domain of head and tail
-		MeetingDomain tailDomain = varDomains.get(arc.TAIL);
-		MeetingDomain headDomain = varDomains.get(arc.HEAD);
-		boolean removed = false;
-		// to avoid concurrency issues
-		Set<LocalDate> copyOfTailDomain = new HashSet<>(tailDomain.domainValues);
-		for (LocalDate tailDate : tailDomain.domainValues) {
-			boolean satisfied = false;
-			for (LocalDate headDate : headDomain.domainValues) {
-				if (arc.CONSTRAINT.isSatisfiedBy(tailDate, headDate)) {
-					// if consistent
-					satisfied = true;
-					break;
-				}
-			}
-
-			if (!satisfied) {
-				// prune date from the tail domain if assignment is not satisfied
-				copyOfTailDomain.remove(tailDate);
-				removed = true;
-			}
-		}
-		// set original to copy
-		tailDomain.domainValues = copyOfTailDomain;
-		return removed;
-	}
-
-	/**
-	 * Private helper class organizing Arcs as defined by the AC-3 algorithm, useful
-	 * for implementing the arcConsistency method. [!] You may modify this class
-	 * however you'd like, its basis is just a suggestion that will indeed work.
-	 */
-	private static class Arc {
-
-		public final DateConstraint CONSTRAINT;
-		public final int TAIL, HEAD;
-
-		/**
-		 * Constructs a new Arc (tail -> head) where head and tail are the meeting
-		 * indexes corresponding with Meeting variables and their associated domains.
-		 * 
-		 * @param tail Meeting index of the tail
-		 * @param head Meeting index of the head
-		 * @param c    Constraint represented by this Arc. [!] WARNING: A
-		 *             DateConstraint's isSatisfiedBy method is parameterized as:
-		 *             isSatisfiedBy (LocalDate leftDate, LocalDate rightDate), meaning
-		 *             L_VAL for the first parameter and R_VAL for the second. Be
-		 *             careful with this when creating Arcs that reverse direction. You
-		 *             may find the BinaryDateConstraint's getReverse method useful
-		 *             here.
-		 */
-		public Arc(int tail, int head, DateConstraint c) {
-			this.TAIL = tail;
-			this.HEAD = head;
-			this.CONSTRAINT = c;
-		}
-
-		@Override
-		public boolean equals(Object other) {
-			if (this == other) {
-				return true;
-			}
-			if (this.getClass() != other.getClass()) {
-				return false;
-			}
-			Arc otherArc = (Arc) other;
-			return this.TAIL == otherArc.TAIL && this.HEAD == otherArc.HEAD
-					&& this.CONSTRAINT.equals(otherArc.CONSTRAINT);
-		}
-
-		@Override
-		public int hashCode() {
-			return Objects.hash(this.TAIL, this.HEAD, this.CONSTRAINT);
-		}
-
-		@Override
-		public String toString() {
-			return "(" + this.TAIL + " -> " + this.HEAD + ")";
-		}
-
+	public static void arcConsistency(List<MeetingDomain> varDomains, Set<DateConstraint> constraints,
+			SolverOptions.ArcConsistencyAlgorithm algorithm) {
+		// compile the binary constraints into an indexed arc table, and revise
+		// arcs from a FIFO worklist until none change
+		ConstraintNetwork network = new ConstraintNetwork(varDomains.size(), constraints);
+		new ArcConsistency(network, varDomains, algorithm).propagate(null);
 	}
 
 }
@@ -0,0 +1,173 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Compilation stage that canonicalizes a set of DateConstraints before they
+ * are used by the solver:
+ * - Unary constraints are folded per meeting into an inclusive [LOWER, UPPER]
+ *   range of epoch days plus the EXCLUDED days inside it.
+ * - Binary constraints are oriented so that the lower meeting index is on the
+ *   left, and every constraint on the same pair of meetings is merged into a
+ *   single relation by intersecting their op codes. Ex:
+ *   0 <= 1 and 1 <= 0 become 0 == 1, while 0 < 1 and 1 < 0 become the empty
+ *   relation, which no dates can satisfy.
+ */
+class ConstraintCompiler {
+
+    final int N_MEETINGS;
+
+    // folded unary constraints: LOWER[m] <= m <= UPPER[m], and m != EXCLUDED[m][k]
+    final long[] LOWER;
+    final long[] UPPER;
+    final long[][] EXCLUDED;
+
+    // merged binary relations: PAIR_LEFT[p] PAIR_OP[p] PAIR_RIGHT[p], with PAIR_LEFT[p] < PAIR_RIGHT[p]
+    final int N_PAIRS;
+    final int[] PAIR_LEFT;
+    final int[] PAIR_RIGHT;
+    final int[] PAIR_OP;
+
+    // whether the constraints were found to be unsatisfiable while compiling
+    final boolean UNSATISFIABLE;
+
+    /**
+     * Compiles the given constraints over nMeetings meeting variables.
+     * @param nMeetings The number of meetings, indexed from 0 to n-1
+     * @param constraints Unary and binary constraints over those meetings
+     */
+    ConstraintCompiler (int nMeetings, Collection<DateConstraint> constraints) {
+        this.N_MEETINGS = nMeetings;
+        this.LOWER = new long[nMeetings];
+        this.UPPER = new long[nMeetings];
+        Arrays.fill(this.LOWER, Long.MIN_VALUE);
+        Arrays.fill(this.UPPER, Long.MAX_VALUE);
+        List<Set<Long>> excluded = new ArrayList<>(Collections.nCopies(nMeetings, (Set<Long>) null));
+        // canonical pair key (left << 32 | right) -> merged op code
+        Map<Long, Integer> pairs = new HashMap<>();
+
+        for (DateConstraint constraint : constraints) {
+            checkIndex(constraint.L_VAL);
+            if (constraint.ARITY == 1) {
+                foldUnary((UnaryDateConstraint) constraint, excluded);
+            } else {
+                BinaryDateConstraint binary = ((BinaryDateConstraint) constraint).canonical();
+                checkIndex(binary.R_VAL);
+                pairs.merge(pairKey(binary.L_VAL, binary.R_VAL), binary.OP_CODE, (a, b) -> a & b);
+            }
+        }
+
+        boolean unsatisfiable = false;
+        this.EXCLUDED = new long[nMeetings][];
+        for (int m = 0; m < nMeetings; m++) {
+            Set<Long> days = excluded.get(m);
+            int n = 0;
+            long[] inRange = new long[days == null ? 0 : days.size()];
+            if (days != null) {
+                for (long day : days) {
+                    if (day >= this.LOWER[m] && day <= this.UPPER[m]) {
+                        inRange[n++] = day;
+                    }
+                }
+            }
+            this.EXCLUDED[m] = Arrays.copyOf(inRange, n);
+            Arrays.sort(this.EXCLUDED[m]);
+            unsatisfiable |= this.LOWER[m] > this.UPPER[m]
+                    || (this.LOWER[m] == this.UPPER[m] && n == 1);
+        }
+
+        // pairs are emitted in key order, so the compiled form does not depend
+        // on the iteration order of the given constraints
+        long[] keys = new long[pairs.size()];
+        int nKeys = 0;
+        for (long key : pairs.keySet()) {
+            keys[nKeys++] = key;
+        }
+        Arrays.sort(keys, 0, nKeys);
+        this.N_PAIRS = nKeys;
+        this.PAIR_LEFT = new int[nKeys];
+        this.PAIR_RIGHT = new int[nKeys];
+        this.PAIR_OP = new int[nKeys];
+        for (int p = 0; p < nKeys; p++) {
+            this.PAIR_LEFT[p] = (int) (keys[p] >>> 32);
+            this.PAIR_RIGHT[p] = (int) keys[p];
+            this.PAIR_OP[p] = pairs.get(keys[p]);
+            unsatisfiable |= this.PAIR_OP[p] == 0;
+        }
+        this.UNSATISFIABLE = unsatisfiable;
+    }
+
+    /**
+     * Wraps constraints that are already in compiled form, e.g., a projection
+     * of another compiled network onto a subset of its meetings.
+     * @param nMeetings The number of meetings, indexed from 0 to n-1
+     * @param lower Folded lower bound of each meeting
+     * @param upper Folded upper bound of each meeting
+     * @param excluded Sorted excluded days of each meeting
+     * @param pairLeft Left meeting of each relation, less than its right
+     * @param pairRight Right meeting of each relation
+     * @param pairOp Op code of each relation
+     */
+    ConstraintCompiler (int nMeetings, long[] lower, long[] upper, long[][] excluded,
+            int[] pairLeft, int[] pairRight, int[] pairOp) {
+        this.N_MEETINGS = nMeetings;
+        this.LOWER = lower;
+        this.UPPER = upper;
+        this.EXCLUDED = excluded;
+        this.N_PAIRS = pairLeft.length;
+        this.PAIR_LEFT = pairLeft;
+        this.PAIR_RIGHT = pairRight;
+        this.PAIR_OP = pairOp;
+        boolean unsatisfiable = false;
+        for (int m = 0; m < nMeetings; m++) {
+            unsatisfiable |= lower[m] > upper[m];
+        }
+        for (int op : pairOp) {
+            unsatisfiable |= op == 0;
+        }
+        this.UNSATISFIABLE = unsatisfiable;
+    }
+
+    /**
+     * Narrows the folded range of the constraint's meeting, or records its
+     * excluded day.
+     */
+    private void foldUnary (UnaryDateConstraint unary, List<Set<Long>> excluded) {
+        int m = unary.L_VAL;
+        long day = unary.R_DAY;
+        switch (unary.OP_CODE) {
+        case DateConstraint.LT:
+            this.UPPER[m] = Math.min(this.UPPER[m], day - 1);
+            break;
+        case DateConstraint.LT | DateConstraint.EQ:
+            this.UPPER[m] = Math.min(this.UPPER[m], day);
+            break;
+        case DateConstraint.GT:
+            this.LOWER[m] = Math.max(this.LOWER[m], day + 1);
+            break;
+        case DateConstraint.EQ | DateConstraint.GT:
+            this.LOWER[m] = Math.max(this.LOWER[m], day);
+            break;
+        case DateConstraint.EQ:
+            this.LOWER[m] = Math.max(this.LOWER[m], day);
+            this.UPPER[m] = Math.min(this.UPPER[m], day);
+            break;
+        default:
+            if (excluded.get(m) == null) {
+                excluded.set(m, new HashSet<>());
+            }
+            excluded.get(m).add(day);
+        }
+    }
+
+    private static long pairKey (int left, int right) {
+        return ((long) left << 32) | right;
+    }
+
+    private void checkIndex (int meeting) {
+        if (meeting >= this.N_MEETINGS) {
+            throw new IllegalArgumentException("Invalid variable index");
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Compiled form of a set of DateConstraints in which every meeting holds
+ * adjacency lists of the unary and binary constraints incident to it, so
+ * that the solver can check a single meeting's assignment without scanning
+ * the entire constraint set. Constraints are first canonicalized by the
+ * ConstraintCompiler, so each meeting has a single folded unary range and
+ * each pair of meetings at most one binary relation.
+ *
+ * Binary relations are stored from both of their endpoints, oriented so
+ * that the meeting owning the list is always the left value, e.g.,
+ * 0 < 1 is listed as (< 1) for meeting 0 and as (> 0) for meeting 1.
+ */
+class ConstraintNetwork {
+
+    final int N_MEETINGS;
+
+    // folded unary constraints: LOWER[m] <= m <= UPPER[m], and m != EXCLUDED[m][k]
+    final long[] LOWER;
+    final long[] UPPER;
+    final long[][] EXCLUDED;
+
+    // NEIGHBOR_OPS[m][k] and NEIGHBORS[m][k] encode: m NEIGHBOR_OPS[m][k] NEIGHBORS[m][k]
+    final int[][] NEIGHBORS;
+    final int[][] NEIGHBOR_OPS;
+
+    // arc table: arc a is ARC_TAIL[a] ARC_OP[a] ARC_HEAD[a], where the arcs with
+    // tail m are numbered contiguously from ARC_START[m] in NEIGHBORS[m] order
+    final int N_ARCS;
+    final int[] ARC_START;
+    final int[] ARC_TAIL;
+    final int[] ARC_HEAD;
+    final int[] ARC_OP;
+    // the arc pointing the opposite direction of each arc
+    final int[] ARC_REVERSE;
+    // ARCS_INTO[m] are the arcs whose head is m, i.e., those to revise when D_m changes
+    final int[][] ARCS_INTO;
+
+    // whether compilation alone proved the constraints unsatisfiable
+    final boolean UNSATISFIABLE;
+
+    /**
+     * Compiles the given constraints over nMeetings meeting variables into
+     * per-meeting adjacency lists.
+     * @param nMeetings The number of meetings, indexed from 0 to n-1
+     * @param constraints Unary and binary constraints over those meetings
+     */
+    ConstraintNetwork (int nMeetings, Set<DateConstraint> constraints) {
+        this(new ConstraintCompiler(nMeetings, constraints));
+    }
+
+    /**
+     * Builds the adjacency lists and arc table of already compiled constraints.
+     * @param compiled The canonicalized constraints
+     */
+    ConstraintNetwork (ConstraintCompiler compiled) {
+        int nMeetings = compiled.N_MEETINGS;
+        this.N_MEETINGS = nMeetings;
+        this.LOWER = compiled.LOWER;
+        this.UPPER = compiled.UPPER;
+        this.EXCLUDED = compiled.EXCLUDED;
+        this.UNSATISFIABLE = compiled.UNSATISFIABLE;
+
+        int[] degree = new int[nMeetings];
+        for (int p = 0; p < compiled.N_PAIRS; p++) {
+            degree[compiled.PAIR_LEFT[p]]++;
+            degree[compiled.PAIR_RIGHT[p]]++;
+        }
+        this.NEIGHBORS = new int[nMeetings][];
+        this.NEIGHBOR_OPS = new int[nMeetings][];
+        this.ARCS_INTO = new int[nMeetings][];
+        this.ARC_START = new int[nMeetings + 1];
+        for (int m = 0; m < nMeetings; m++) {
+            this.NEIGHBORS[m] = new int[degree[m]];
+            this.NEIGHBOR_OPS[m] = new int[degree[m]];
+            this.ARCS_INTO[m] = new int[degree[m]];
+            this.ARC_START[m + 1] = this.ARC_START[m] + degree[m];
+        }
+        this.N_ARCS = this.ARC_START[nMeetings];
+        this.ARC_TAIL = new int[this.N_ARCS];
+        this.ARC_HEAD = new int[this.N_ARCS];
+        this.ARC_OP = new int[this.N_ARCS];
+        this.ARC_REVERSE = new int[this.N_ARCS];
+
+        // pairs fill each list in increasing neighbor order
+        int[] fill = new int[nMeetings];
+        for (int p = 0; p < compiled.N_PAIRS; p++) {
+            int l = compiled.PAIR_LEFT[p], r = compiled.PAIR_RIGHT[p];
+            int op = compiled.PAIR_OP[p], reverseOp = DateConstraint.reverseOpCode(op);
+            int kl = fill[l]++, kr = fill[r]++;
+            this.NEIGHBORS[l][kl] = r;
+            this.NEIGHBOR_OPS[l][kl] = op;
+            this.NEIGHBORS[r][kr] = l;
+            this.NEIGHBOR_OPS[r][kr] = reverseOp;
+
+            // each relation yields the arcs l -> r and r -> l
+            int forward = this.ARC_START[l] + kl, backward = this.ARC_START[r] + kr;
+            addArc(forward, l, op, r, backward);
+            addArc(backward, r, reverseOp, l, forward);
+            // the arc into l stored at kl is the one from l's kl-th neighbor
+            this.ARCS_INTO[l][kl] = backward;
+            this.ARCS_INTO[r][kr] = forward;
+        }
+    }
+
+    private void addArc (int arc, int tail, int opCode, int head, int reverse) {
+        this.ARC_TAIL[arc] = tail;
+        this.ARC_OP[arc] = opCode;
+        this.ARC_HEAD[arc] = head;
+        this.ARC_REVERSE[arc] = reverse;
+    }
+
+    /**
+     * @param meeting A meeting index
+     * @return The number of binary constraints incident to the given meeting.
+     */
+    int degree (int meeting) {
+        return this.NEIGHBORS[meeting].length;
+    }
+
+    /**
+     * Prunes every date violating the unary constraints of each meeting from
+     * its domain, using the folded range and excluded days.
+     * @param domains Meeting-indexed MeetingDomains to prune
+     */
+    void applyUnary (List<MeetingDomain> domains) {
+        for (int m = 0; m < this.N_MEETINGS; m++) {
+            MeetingDomain domain = domains.get(m);
+            if (this.LOWER[m] != Long.MIN_VALUE || this.UPPER[m] != Long.MAX_VALUE) {
+                int lo = this.LOWER[m] == Long.MIN_VALUE ? -1 : clampOffset(domain, this.LOWER[m]);
+                int hi = this.UPPER[m] == Long.MAX_VALUE ? domain.span() : clampOffset(domain, this.UPPER[m]);
+                domain.retainOffsets(lo, hi);
+            }
+            for (long day : this.EXCLUDED[m]) {
+                domain.remove(day);
+            }
+        }
+    }
+
+    // Decomposition
+    // -------------------------------------------------------------------------
+
+    /**
+     * Splits the meetings into the connected components of the binary
+     * constraint graph, which can be solved independently of one another.
+     * @return The meetings of each component in increasing order, with the
+     *         components ordered by their lowest meeting.
+     */
+    int[][] components () {
+        int[] component = new int[this.N_MEETINGS];
+        Arrays.fill(component, -1);
+        int[] stack = new int[this.N_MEETINGS];
+        List<int[]> components = new ArrayList<>();
+        for (int root = 0; root < this.N_MEETINGS; root++) {
+            if (component[root] != -1) {
+                continue;
+            }
+            int id = components.size(), size = 0, top = 0;
+            component[root] = id;
+            stack[top++] = root;
+            int[] members = new int[4];
+            while (top > 0) {
+                int m = stack[--top];
+                if (size == members.length) {
+                    members = Arrays.copyOf(members, size * 2);
+                }
+                members[size++] = m;
+                for (int neighbor : this.NEIGHBORS[m]) {
+                    if (component[neighbor] == -1) {
+                        component[neighbor] = id;
+                        stack[top++] = neighbor;
+                    }
+                }
+            }
+            members = Arrays.copyOf(members, size);
+            Arrays.sort(members);
+            components.add(members);
+        }
+        return components.toArray(new int[0][]);
+    }
+
+    /**
+     * Projects this network onto the given meetings, which must be closed
+     * under NEIGHBORS (e.g., a component), renumbering them from 0 in the
+     * order given.
+     * @param meetings Increasing meeting indexes to keep
+     * @return The network over only those meetings.
+     */
+    ConstraintNetwork restrict (int[] meetings) {
+        int n = meetings.length;
+        int[] local = new int[this.N_MEETINGS];
+        long[] lower = new long[n], upper = new long[n];
+        long[][] excluded = new long[n][];
+        int nPairs = 0;
+        for (int i = 0; i < n; i++) {
+            int m = meetings[i];
+            local[m] = i;
+            lower[i] = this.LOWER[m];
+            upper[i] = this.UPPER[m];
+            excluded[i] = this.EXCLUDED[m];
+            nPairs += this.NEIGHBORS[m].length;
+        }
+        // every relation appears in both of its meetings' lists
+        nPairs /= 2;
+        int[] left = new int[nPairs], right = new int[nPairs], ops = new int[nPairs];
+        int p = 0;
+        for (int i = 0; i < n; i++) {
+            int m = meetings[i];
+            for (int k = 0; k < this.NEIGHBORS[m].length; k++) {
+                if (this.NEIGHBORS[m][k] > m) {
+                    left[p] = i;
+                    right[p] = local[this.NEIGHBORS[m][k]];
+                    ops[p++] = this.NEIGHBOR_OPS[m][k];
+                }
+            }
+        }
+        return new ConstraintNetwork(new ConstraintCompiler(n, lower, upper, excluded, left, right, ops));
+    }
+
+    /**
+     * Converts the day to an offset of the domain, clamped to [-1, span] so
+     * that days outside of the range fall just outside of it.
+     */
+    private static int clampOffset (MeetingDomain domain, long day) {
+        return (int) Math.max(-1, Math.min(domain.offsetOf(day), domain.span()));
+    }
+
+}
@@ -0,0 +1,201 @@
+package main.csp;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cycle-cutset conditioning for networks whose binary constraint graph is
+ * nearly a forest: a set of meetings whose removal leaves the graph acyclic
+ * is found greedily, every consistent assignment of those meetings is
+ * enumerated with forward checking, and the forest left under each is solved
+ * by a TreeSolver without backtracking. Search is thus exponential only in
+ * the size of the cutset rather than in the number of meetings.
+ */
+class CutsetSolver {
+
+    // the most cutset assignments, i.e., the product of the cutset's domain
+    // sizes, for which conditioning is chosen over backtracking search
+    static final long MAX_ASSIGNMENTS = 1 << 12;
+
+    private final ConstraintNetwork network;
+    private final List<MeetingDomain> domains;
+    private final int[] cutset;
+    private final boolean[] assigned;
+    // the offset of the date each cutset meeting, by depth, is conditioned on
+    private final int[] offsetAt;
+    private final ArcConsistency arcConsistency;
+    private final TreeSolver tree;
+    private final DomainTrail trail;
+
+    // set by other threads to stop the search early
+    private final AtomicBoolean stop;
+
+    /**
+     * Creates a new solver that conditions on the given cutset.
+     * @param network The compiled constraints of the problem
+     * @param domains Meeting-indexed MeetingDomains, already arc consistent
+     * @param options Configuration choosing how arcs are revised
+     * @param cutset Meetings whose removal leaves a forest, as found by cutset()
+     * @param stop Flag that, once set, makes the search give up, or null
+     */
+    CutsetSolver (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options,
+            int[] cutset, AtomicBoolean stop) {
+        this.network = network;
+        this.domains = domains;
+        this.cutset = cutset;
+        this.stop = stop;
+        this.assigned = new boolean[network.N_MEETINGS];
+        this.offsetAt = new int[cutset.length];
+        boolean[] conditioned = new boolean[network.N_MEETINGS];
+        for (int m : cutset) {
+            conditioned[m] = true;
+        }
+        this.arcConsistency = new ArcConsistency(network, domains, options.arcConsistency());
+        this.tree = new TreeSolver(network, domains, this.arcConsistency, conditioned);
+        this.trail = new DomainTrail(domains);
+    }
+
+    /**
+     * Greedily finds a cycle cutset: meetings with at most one remaining
+     * neighbor are peeled off, as they cannot be on a cycle, and whenever none
+     * are left the meeting with the most remaining neighbors joins the cutset.
+     * @param network A compiled constraint network
+     * @param domains Meeting-indexed MeetingDomains
+     * @return The cutset's meetings, or null if conditioning on them would
+     *         enumerate more than MAX_ASSIGNMENTS assignments.
+     */
+    static int[] cutset (ConstraintNetwork network, List<MeetingDomain> domains) {
+        int n = network.N_MEETINGS;
+        int[] degree = new int[n];
+        boolean[] removed = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0, remaining = n;
+        for (int m = 0; m < n; m++) {
+            degree[m] = network.NEIGHBORS[m].length;
+            if (degree[m] <= 1) {
+                removed[m] = true;
+                stack[top++] = m;
+            }
+        }
+        int[] cutset = new int[n];
+        int size = 0;
+        long assignments = 1;
+        while (true) {
+            while (top > 0) {
+                int u = stack[--top];
+                remaining--;
+                for (int v : network.NEIGHBORS[u]) {
+                    if (!removed[v] && --degree[v] <= 1) {
+                        removed[v] = true;
+                        stack[top++] = v;
+                    }
+                }
+            }
+            if (remaining == 0) {
+                return Arrays.copyOf(cutset, size);
+            }
+            int best = -1;
+            for (int m = 0; m < n; m++) {
+                if (!removed[m] && (best == -1 || degree[m] > degree[best])) {
+                    best = m;
+                }
+            }
+            assignments *= domains.get(best).size();
+            if (assignments > MAX_ASSIGNMENTS) {
+                return null;
+            }
+            cutset[size++] = best;
+            removed[best] = true;
+            stack[top++] = best;
+        }
+    }
+
+    /**
+     * Runs the search to completion.
+     * @return Epoch days of a solution indexed by meeting, or null if none
+     *         exists.
+     * @throws CancellationException If the stop flag is set first
+     */
+    long[] solve () {
+        return condition();
+    }
+
+    /**
+     * Tries every remaining value of each cutset meeting in turn, pruning its
+     * unassigned neighbors to match, and solves the forest once all of them
+     * are assigned. The date tried at each depth is kept in an array rather
+     * than on the call stack.
+     * @return A solution extending some values of the cutset, or null.
+     */
+    private long[] condition () {
+        int depth = 0;
+        boolean descending = true;
+        while (true) {
+            int t;
+            if (descending) {
+                if (this.stop != null && this.stop.get()) {
+                    throw new CancellationException();
+                }
+                if (depth == this.cutset.length) {
+                    long[] solution = this.tree.solve(this.trail);
+                    if (solution != null) {
+                        return solution;
+                    }
+                    if (depth == 0) {
+                        return null;
+                    }
+                    depth--;
+                    descending = false;
+                    continue;
+                }
+                this.assigned[this.cutset[depth]] = true;
+                t = this.domains.get(this.cutset[depth]).firstOffset();
+            } else {
+                // the date last tried at this depth failed
+                this.trail.pop();
+                t = this.domains.get(this.cutset[depth]).nextOffset(this.offsetAt[depth] + 1);
+            }
+            int meeting = this.cutset[depth];
+            MeetingDomain domain = this.domains.get(meeting);
+            for (; t != -1; t = domain.nextOffset(t + 1)) {
+                this.trail.push();
+                this.trail.save(meeting);
+                domain.retainOffsets(t, t);
+                if (forwardCheck(meeting)) {
+                    break;
+                }
+                this.trail.pop();
+            }
+            if (t == -1) {
+                this.assigned[meeting] = false;
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+                descending = false;
+            } else {
+                this.offsetAt[depth] = t;
+                depth++;
+                descending = true;
+            }
+        }
+    }
+
+    /**
+     * Removes the values of every unassigned neighbor of the given meeting
+     * that conflict with its single value.
+     * @return false if some neighbor's domain was wiped out, true otherwise.
+     */
+    private boolean forwardCheck (int meeting) {
+        for (int arc : this.network.ARCS_INTO[meeting]) {
+            int tail = this.network.ARC_TAIL[arc];
+            if (!this.assigned[tail] && this.arcConsistency.revise(arc, this.trail)
+                    && this.domains.get(tail).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,232 @@
+package main.csp;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * List-coloring engine for networks in which every binary relation is !=:
+ * days are colors, and each meeting's domain is its list of allowed colors.
+ * Meetings are colored in DSatur order, i.e., the meeting whose colored
+ * neighbors already use the most distinct days first, breaking ties by the
+ * most uncolored neighbors, and each meeting keeps a bitset of the days
+ * blocked by its colored neighbors, so its available days are found word by
+ * word and a meeting left with none fails the branch immediately.
+ */
+class DSaturSolver {
+
+    private final ConstraintNetwork network;
+    private final int n;
+    private final MeetingDomain[] domains;
+
+    // lists[m] is m's domain, and blocked[m] the days used by m's colored neighbors
+    private final long[][] lists;
+    private final long[][] blocked;
+
+    // saturation[m] is the number of blocked days, available[m] the number of
+    // days in m's list that are not blocked, and uncoloredDegree[m] the number
+    // of m's neighbors that are not colored
+    private final int[] saturation, available, uncoloredDegree;
+    private final boolean[] colored;
+    private final long[] assignment;
+
+    // undo stack of the (meeting, day) blocks made by each coloring
+    private final int[] undoMeeting, undoDay;
+    private int undoTop;
+
+    // choice points: per-depth meeting colored, word of its list and days of
+    // that word left to try, and undo stack height before its current day
+    private final int[] meetingAt, wordAt, markAt;
+    private final long[] bitsAt;
+
+    // set by other threads to stop the search early
+    private final AtomicBoolean stop;
+
+    /**
+     * Creates a new coloring engine over the given network.
+     * @param network The compiled constraints, which must qualify()
+     * @param domains Meeting-indexed MeetingDomains, already node consistent
+     * @param stop Flag that, once set, makes the search give up, or null
+     */
+    DSaturSolver (ConstraintNetwork network, List<MeetingDomain> domains, AtomicBoolean stop) {
+        this.network = network;
+        this.stop = stop;
+        this.n = network.N_MEETINGS;
+        this.domains = domains.toArray(new MeetingDomain[0]);
+        this.lists = new long[this.n][];
+        this.blocked = new long[this.n][];
+        this.saturation = new int[this.n];
+        this.available = new int[this.n];
+        this.uncoloredDegree = new int[this.n];
+        for (int m = 0; m < this.n; m++) {
+            MeetingDomain domain = this.domains[m];
+            this.lists[m] = new long[domain.wordCount()];
+            domain.copyWordsTo(this.lists[m]);
+            this.blocked[m] = new long[domain.wordCount()];
+            this.available[m] = domain.size();
+            this.uncoloredDegree[m] = network.degree(m);
+        }
+        this.colored = new boolean[this.n];
+        this.assignment = new long[this.n];
+        this.undoMeeting = new int[network.N_ARCS];
+        this.undoDay = new int[network.N_ARCS];
+        this.meetingAt = new int[this.n];
+        this.wordAt = new int[this.n];
+        this.markAt = new int[this.n];
+        this.bitsAt = new long[this.n];
+    }
+
+    /**
+     * @param network A compiled constraint network
+     * @param domains Meeting-indexed MeetingDomains
+     * @return Whether or not every binary relation of the network is != and
+     *         every domain spans the same range, making it list coloring.
+     */
+    static boolean qualifies (ConstraintNetwork network, List<MeetingDomain> domains) {
+        for (int op : network.ARC_OP) {
+            if (op != (DateConstraint.LT | DateConstraint.GT)) {
+                return false;
+            }
+        }
+        for (MeetingDomain domain : domains) {
+            if (!domain.isCompatible(domains.get(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the search to completion.
+     * @return Epoch days of a coloring indexed by meeting, or null if none
+     *         exists.
+     * @throws CancellationException If the stop flag is set first
+     */
+    long[] solve () {
+        for (int m = 0; m < this.n; m++) {
+            if (this.available[m] == 0) {
+                return null;
+            }
+        }
+        return color() ? this.assignment : null;
+    }
+
+    /**
+     * Colors the most saturated uncolored meeting with each of its available
+     * days in turn, and then every meeting after it. The choice point of each
+     * depth is kept in per-depth arrays rather than on the call stack, so the
+     * search can go as deep as there are meetings.
+     * @return Whether or not the coloring could be completed.
+     */
+    private boolean color () {
+        int depth = 0;
+        boolean descending = true;
+        while (true) {
+            if (descending) {
+                if (depth == this.n) {
+                    return true;
+                }
+                if (this.stop != null && this.stop.get()) {
+                    throw new CancellationException();
+                }
+                int meeting = select();
+                this.colored[meeting] = true;
+                this.meetingAt[depth] = meeting;
+                this.wordAt[depth] = -1;
+                this.bitsAt[depth] = 0;
+            } else {
+                // the day last tried at this depth failed
+                unblock(this.meetingAt[depth], this.markAt[depth]);
+            }
+            int meeting = this.meetingAt[depth];
+            long[] list = this.lists[meeting], blocks = this.blocked[meeting];
+            // a colored meeting's blocked days never change, so this is stable
+            int w = this.wordAt[depth];
+            long bits = this.bitsAt[depth];
+            while (bits == 0 && ++w < list.length) {
+                bits = list[w] & ~blocks[w];
+            }
+            if (bits == 0) {
+                this.colored[meeting] = false;
+                if (depth == 0) {
+                    return false;
+                }
+                depth--;
+                descending = false;
+                continue;
+            }
+            int day = (w << 6) + Long.numberOfTrailingZeros(bits);
+            this.wordAt[depth] = w;
+            this.bitsAt[depth] = bits & (bits - 1);
+            this.markAt[depth] = this.undoTop;
+            this.assignment[meeting] = this.domains[meeting].toEpochDay(day);
+            descending = block(meeting, day);
+            if (descending) {
+                depth++;
+            }
+        }
+    }
+
+    /**
+     * @return The uncolored meeting with the most distinct days among its
+     *         colored neighbors, breaking ties by the most uncolored neighbors.
+     */
+    private int select () {
+        int best = -1;
+        for (int m = 0; m < this.n; m++) {
+            if (this.colored[m]) {
+                continue;
+            }
+            if (best == -1 || this.saturation[m] > this.saturation[best]
+                    || this.saturation[m] == this.saturation[best]
+                    && this.uncoloredDegree[m] > this.uncoloredDegree[best]) {
+                best = m;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Blocks the given day for every uncolored neighbor of the newly colored
+     * meeting, recording each new block on the undo stack.
+     * @return false if some neighbor has no available day left, true otherwise.
+     */
+    private boolean block (int meeting, int day) {
+        int word = day >>> 6;
+        long bit = 1L << day;
+        boolean consistent = true;
+        for (int neighbor : this.network.NEIGHBORS[meeting]) {
+            this.uncoloredDegree[neighbor]--;
+            if (this.colored[neighbor] || (this.blocked[neighbor][word] & bit) != 0) {
+                continue;
+            }
+            this.blocked[neighbor][word] |= bit;
+            this.saturation[neighbor]++;
+            if ((this.lists[neighbor][word] & bit) != 0 && --this.available[neighbor] == 0) {
+                consistent = false;
+            }
+            this.undoMeeting[this.undoTop] = neighbor;
+            this.undoDay[this.undoTop++] = day;
+        }
+        return consistent;
+    }
+
+    /**
+     * Undoes every block made since the undo stack held mark entries.
+     */
+    private void unblock (int meeting, int mark) {
+        for (int neighbor : this.network.NEIGHBORS[meeting]) {
+            this.uncoloredDegree[neighbor]++;
+        }
+        while (this.undoTop > mark) {
+            this.undoTop--;
+            int neighbor = this.undoMeeting[this.undoTop], day = this.undoDay[this.undoTop];
+            this.blocked[neighbor][day >>> 6] &= ~(1L << day);
+            this.saturation[neighbor]--;
+            if ((this.lists[neighbor][day >>> 6] & (1L << day)) != 0) {
+                this.available[neighbor]++;
+            }
+        }
+    }
+
+}
@@ -10,8 +10,17 @@ import java.util.*;
  */
 public abstract class DateConstraint {
 
+    /**
+     * Operators are compiled into a bitmask over the three possible outcomes
+     * of comparing two dates, such that a constraint is satisfied whenever the
+     * outcome of comparing its left and right dates is in its mask. Ex:
+     * "<=" is LT | EQ, "!=" is LT | GT
+     */
+    public static final int LT = 1, EQ = 2, GT = 4;
+    
     public final int L_VAL;
     public final String OP;
+    public final int OP_CODE;
     public final int ARITY;
     
     private static final Set<String> LEGAL_OPS = new HashSet<>(
@@ -35,9 +44,58 @@ public abstract class DateConstraint {
         
         this.L_VAL = lVal;
         this.OP = operator;
+        this.OP_CODE = opCode(operator);
         this.ARITY = arity;
     }
     
+    /**
+     * Compiles the given operator into its outcome bitmask.
+     * @param operator The comparator from amongst those in LEGAL_OPS
+     * @return The bitmask of LT, EQ, and GT outcomes satisfying the operator
+     */
+    public static int opCode (String operator) {
+        switch (operator) {
+        case "==": return EQ;
+        case "!=": return LT | GT;
+        case "<":  return LT;
+        case "<=": return LT | EQ;
+        case ">":  return GT;
+        case ">=": return EQ | GT;
+        }
+        throw new IllegalArgumentException("Invalid constraint operator");
+    }
+    
+    /**
+     * Returns the op code that holds when the left and right values of a
+     * constraint with the given op code are swapped, i.e., LT and GT trade places.
+     * @param opCode The op code to reverse
+     * @return The symmetrical op code
+     */
+    public static int reverseOpCode (int opCode) {
+        return (opCode & EQ) | ((opCode & LT) << 2) | ((opCode & GT) >> 2);
+    }
+    
+    /**
+     * Returns the outcome bit of comparing the given epoch days.
+     * @param leftDay The left epoch day
+     * @param rightDay The right epoch day
+     * @return LT, EQ, or GT
+     */
+    public static int compare (long leftDay, long rightDay) {
+        return leftDay < rightDay ? LT : (leftDay == rightDay ? EQ : GT);
+    }
+    
+    /**
+     * Returns whether leftDay opCode rightDay holds.
+     * @param opCode The compiled operator
+     * @param leftDay The left epoch day
+     * @param rightDay The right epoch day
+     * @return Whether or not the comparison is satisfied.
+     */
+    public static boolean isSatisfied (int opCode, long leftDay, long rightDay) {
+        return (opCode & compare(leftDay, rightDay)) != 0;
+    }
+    
     /**
      * Returns whether or not the given constraint is satisfied with the given LValue, constraint, and RValue
      * such that LValue constraint.OP RValue is true or not
@@ -46,15 +104,18 @@ public abstract class DateConstraint {
      * @return Whether or not the constraint is satisfied with the given dates.
      */
     public boolean isSatisfiedBy (LocalDate leftDate, LocalDate rightDate) {
-        switch (this.OP) {
-        case "==": return leftDate.isEqual(rightDate);
-        case "!=": return !leftDate.isEqual(rightDate);
-        case ">":  return leftDate.isAfter(rightDate);
-        case "<":  return leftDate.isBefore(rightDate);
-        case ">=": return leftDate.isAfter(rightDate) || leftDate.isEqual(rightDate);
-        case "<=": return leftDate.isBefore(rightDate) || leftDate.isEqual(rightDate);
-        }
-        return false;
+        return isSatisfiedBy(leftDate.toEpochDay(), rightDate.toEpochDay());
+    }
+    
+    /**
+     * Primitive variant of isSatisfiedBy that compares epoch days using the
+     * pre-resolved OP_CODE, for use in the solver's hot loops.
+     * @param leftDay The LValue, as an epoch day
+     * @param rightDay The RValue, as an epoch day
+     * @return Whether or not the constraint is satisfied with the given days.
+     */
+    public boolean isSatisfiedBy (long leftDay, long rightDay) {
+        return (this.OP_CODE & compare(leftDay, rightDay)) != 0;
     }
     
     /**
@@ -0,0 +1,102 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Reversible state for the MeetingDomains of a search: before a domain is
+ * first pruned within a search level, its bitset is saved to the trail so
+ * that popping the level restores every domain to how it was when the
+ * level was pushed. Snapshot arrays are pooled and reused across levels.
+ */
+class DomainTrail {
+
+    private final List<MeetingDomain> domains;
+
+    // saved entries: which meeting, its bitset, and its size
+    private int[] savedMeeting = new int[16];
+    private long[][] savedWords = new long[16][];
+    private int[] savedSize = new int[16];
+    private int top;
+
+    // index into the saved entries at which each level begins
+    private int[] levelStart = new int[16];
+    private int level;
+
+    // id of the level at which each meeting was last saved, ids are never reused
+    private final int[] savedAt;
+    private int[] levelIds = new int[16];
+    private int nextLevelId = 1;
+
+    /**
+     * Creates a new DomainTrail over the given domains, at level 0.
+     * @param domains The Meeting-indexed MeetingDomains that will be pruned
+     */
+    DomainTrail (List<MeetingDomain> domains) {
+        this.domains = domains;
+        this.savedAt = new int[domains.size()];
+    }
+
+    /**
+     * @return The number of levels currently pushed.
+     */
+    int level () {
+        return this.level;
+    }
+
+    /**
+     * Opens a new level; changes saved from here on are undone by the
+     * matching pop.
+     */
+    void push () {
+        if (this.level + 1 == this.levelStart.length) {
+            this.levelStart = Arrays.copyOf(this.levelStart, this.levelStart.length * 2);
+            this.levelIds = Arrays.copyOf(this.levelIds, this.levelIds.length * 2);
+        }
+        this.level++;
+        this.levelStart[this.level] = this.top;
+        this.levelIds[this.level] = this.nextLevelId++;
+    }
+
+    /**
+     * Records the current state of the given meeting's domain, if it has not
+     * yet been recorded at this level. Must be called before the domain is
+     * pruned.
+     * @param meeting Index of the meeting whose domain is about to change
+     */
+    void save (int meeting) {
+        if (this.level == 0 || this.savedAt[meeting] == this.levelIds[this.level]) {
+            return;
+        }
+        this.savedAt[meeting] = this.levelIds[this.level];
+        if (this.top == this.savedMeeting.length) {
+            int capacity = this.top * 2;
+            this.savedMeeting = Arrays.copyOf(this.savedMeeting, capacity);
+            this.savedWords = Arrays.copyOf(this.savedWords, capacity);
+            this.savedSize = Arrays.copyOf(this.savedSize, capacity);
+        }
+        MeetingDomain domain = this.domains.get(meeting);
+        long[] words = this.savedWords[this.top];
+        if (words == null || words.length < domain.wordCount()) {
+            words = this.savedWords[this.top] = new long[domain.wordCount()];
+        }
+        domain.copyWordsTo(words);
+        this.savedMeeting[this.top] = meeting;
+        this.savedSize[this.top] = domain.size();
+        this.top++;
+    }
+
+    /**
+     * Closes the current level, restoring every domain saved within it.
+     */
+    void pop () {
+        int start = this.levelStart[this.level];
+        while (this.top > start) {
+            this.top--;
+            int meeting = this.savedMeeting[this.top];
+            this.domains.get(meeting).restoreWords(this.savedWords[this.top], this.savedSize[this.top]);
+            this.savedAt[meeting] = 0;
+        }
+        this.level--;
+    }
+
+}
@@ -6,11 +6,34 @@ import java.util.*;
 /**
  * Helper class used to manage Meeting Variable domains in both the
  * Backtracking scheduler and the Filtering methods of the CSP solver.
+ *
+ * Membership is stored as a bitset of day offsets from the domain's
+ * rangeStart, so that pruning, copying, and size checks are word operations
+ * rather than per-date hashing. Domains built over the same range share the
+ * same offsets, which lets two of them be intersected word by word.
+ *
+ * Domains created together by fullRange share one immutable bitset of the
+ * whole range, and each copies it only when it is first pruned, so meetings
+ * that are never constrained cost no more than their range's single bitset.
  */
 public class MeetingDomain {
-    
-    public Set<LocalDate> domainValues;
-    
+
+    private static final int WORD_BITS = 64;
+
+    /**
+     * Live Set view of the dates in this domain; reads and removals write
+     * through to the underlying bitset.
+     */
+    public final Set<LocalDate> domainValues;
+
+    private final long origin;
+    private final int span;
+    private long[] words;
+    private int size;
+    // whether words is a bitset shared with other domains, which must be
+    // copied before it is written
+    private boolean shared;
+
     /**
      * Creates a new MeetingDomain with all dates between the given rangeStart
      * and rangeEnd (inclusive).
@@ -18,24 +41,448 @@ public class MeetingDomain {
      * @param rangeEnd The end date of the domain.
      */
     public MeetingDomain (LocalDate rangeStart, LocalDate rangeEnd) {
-        this.domainValues = new HashSet<>();
-        for (LocalDate date = rangeStart; date.isBefore(rangeEnd) || date.isEqual(rangeEnd); date = date.plusDays(1)) {
-            this.domainValues.add(date);
+        this.origin = rangeStart.toEpochDay();
+        this.span = (int) Math.max(0, rangeEnd.toEpochDay() - this.origin + 1);
+        this.words = new long[wordCount(this.span)];
+        this.size = this.span;
+        for (int i = 0; i < this.span / WORD_BITS; i++) {
+            this.words[i] = -1L;
+        }
+        if (this.span % WORD_BITS != 0) {
+            this.words[this.span / WORD_BITS] = (1L << (this.span % WORD_BITS)) - 1;
         }
+        this.domainValues = new DomainView();
     }
-    
+
     /**
      * Copy-constructor for a MeetingDomain that initializes it with the
      * same values as the other.
      * @param other Other MeetingDomain from which to make a copy.
      */
     public MeetingDomain (MeetingDomain other) {
-        this.domainValues = new HashSet<>(other.domainValues);
+        this.origin = other.origin;
+        this.span = other.span;
+        // shared bitsets are never written, so they can be shared once more
+        this.shared = other.shared;
+        this.words = other.shared ? other.words : other.words.clone();
+        this.size = other.size;
+        this.domainValues = new DomainView();
+    }
+
+    /**
+     * Creates MeetingDomains with all dates between the given rangeStart and
+     * rangeEnd (inclusive), which share a single bitset of the range until
+     * each is first pruned.
+     * @param n The number of domains to create
+     * @param rangeStart The beginning date of every domain.
+     * @param rangeEnd The end date of every domain.
+     * @return The list of n new MeetingDomains.
+     */
+    public static List<MeetingDomain> fullRange (int n, LocalDate rangeStart, LocalDate rangeEnd) {
+        MeetingDomain base = new MeetingDomain(rangeStart, rangeEnd);
+        base.shared = true;
+        List<MeetingDomain> domains = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            domains.add(new MeetingDomain(base));
+        }
+        return domains;
+    }
+
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return The number of dates remaining in this domain.
+     */
+    public int size () {
+        return this.size;
+    }
+
+    /**
+     * @return Whether or not every date has been pruned from this domain.
+     */
+    public boolean isEmpty () {
+        return this.size == 0;
+    }
+
+    /**
+     * @return The number of days between rangeStart and rangeEnd (inclusive),
+     *         i.e., one past the largest legal offset.
+     */
+    public int span () {
+        return this.span;
+    }
+
+    /**
+     * @return The epoch day of offset 0 (the rangeStart of this domain).
+     */
+    public long origin () {
+        return this.origin;
+    }
+
+    /**
+     * Converts an offset within this domain to its epoch day.
+     * @param offset Day offset from rangeStart
+     * @return The corresponding epoch day
+     */
+    public long toEpochDay (int offset) {
+        return this.origin + offset;
+    }
+
+    /**
+     * Converts an epoch day to its offset within this domain, which may lie
+     * outside of [0, span) if the day is outside of the range.
+     * @param epochDay The epoch day to convert
+     * @return The day offset from rangeStart
+     */
+    public long offsetOf (long epochDay) {
+        return epochDay - this.origin;
+    }
+
+    /**
+     * @param offset Day offset from rangeStart
+     * @return Whether or not the date at the given offset is in this domain.
+     */
+    public boolean containsOffset (int offset) {
+        return offset >= 0 && offset < this.span && (this.words[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * @param epochDay The epoch day to look up
+     * @return Whether or not the given epoch day is in this domain.
+     */
+    public boolean contains (long epochDay) {
+        long offset = epochDay - this.origin;
+        return offset >= 0 && offset < this.span && containsOffset((int) offset);
+    }
+
+    /**
+     * Returns the smallest offset in this domain that is >= the given one.
+     * @param from Offset at which to begin the search (inclusive)
+     * @return The next offset in the domain, or -1 if there is none.
+     */
+    public int nextOffset (int from) {
+        if (from < 0) { from = 0; }
+        if (from >= this.span) { return -1; }
+        int w = from >>> 6;
+        long word = this.words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) { return w * WORD_BITS + Long.numberOfTrailingZeros(word); }
+            if (++w == this.words.length) { return -1; }
+            word = this.words[w];
+        }
+    }
+
+    /**
+     * Returns the largest offset in this domain that is <= the given one.
+     * @param from Offset at which to begin the search (inclusive)
+     * @return The previous offset in the domain, or -1 if there is none.
+     */
+    public int prevOffset (int from) {
+        if (from < 0 || this.span == 0) { return -1; }
+        if (from >= this.span) { from = this.span - 1; }
+        int w = from >>> 6;
+        long word = this.words[w] & (-1L >>> (WORD_BITS - 1 - (from & 63)));
+        while (true) {
+            if (word != 0) { return w * WORD_BITS + WORD_BITS - 1 - Long.numberOfLeadingZeros(word); }
+            if (w-- == 0) { return -1; }
+            word = this.words[w];
+        }
+    }
+
+    /**
+     * @return The smallest offset in this domain, or -1 if it is empty.
+     */
+    public int firstOffset () {
+        return nextOffset(0);
+    }
+
+    /**
+     * @return The largest offset in this domain, or -1 if it is empty.
+     */
+    public int lastOffset () {
+        return prevOffset(this.span - 1);
+    }
+
+    /**
+     * Returns the number of dates in this domain strictly before the given
+     * epoch day, which may lie outside of the domain's range.
+     * @param epochDay The epoch day to count up to (exclusive)
+     * @return The number of dates in the domain before epochDay
+     */
+    public int countBefore (long epochDay) {
+        long offset = epochDay - this.origin;
+        if (offset <= 0) { return 0; }
+        if (offset >= this.span) { return this.size; }
+        int end = (int) offset, count = 0;
+        for (int w = 0; w < end >>> 6; w++) {
+            count += Long.bitCount(this.words[w]);
+        }
+        if ((end & 63) != 0) {
+            count += Long.bitCount(this.words[end >>> 6] & ((1L << end) - 1));
+        }
+        return count;
+    }
+
+    /**
+     * Writes the offsets in this domain into the given array in chronological
+     * order, so callers may iterate a stable snapshot of the domain.
+     * @param dest Array of at least size() ints
+     * @return The number of offsets written, i.e., size()
+     */
+    public int copyOffsetsTo (int[] dest) {
+        int n = 0;
+        for (int w = 0; w < this.words.length; w++) {
+            long word = this.words[w];
+            while (word != 0) {
+                dest[n++] = w * WORD_BITS + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return n;
     }
-    
+
+    /**
+     * @param other A MeetingDomain spanning the same range as this one
+     * @return Whether or not every date in this domain is also in the other.
+     */
+    public boolean isSubsetOf (MeetingDomain other) {
+        checkCompatible(other);
+        for (int w = 0; w < this.words.length; w++) {
+            if ((this.words[w] & ~other.words[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other Another MeetingDomain
+     * @return Whether or not the other domain spans the same range as this one,
+     *         such that their offsets coincide.
+     */
+    public boolean isCompatible (MeetingDomain other) {
+        return this.origin == other.origin && this.span == other.span;
+    }
+
+    // Pruning
+    // -------------------------------------------------------------------------
+
+    /**
+     * Removes the date at the given offset, if present.
+     * @param offset Day offset from rangeStart
+     * @return Whether or not the domain changed.
+     */
+    public boolean removeOffset (int offset) {
+        if (!containsOffset(offset)) { return false; }
+        own();
+        this.words[offset >>> 6] &= ~(1L << offset);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Removes the given epoch day, if present.
+     * @param epochDay The epoch day to remove
+     * @return Whether or not the domain changed.
+     */
+    public boolean remove (long epochDay) {
+        long offset = epochDay - this.origin;
+        return offset >= 0 && offset < this.span && removeOffset((int) offset);
+    }
+
+    /**
+     * Removes every date whose offset falls outside of [lo, hi].
+     * @param lo Smallest offset to keep (inclusive)
+     * @param hi Largest offset to keep (inclusive)
+     * @return Whether or not the domain changed.
+     */
+    public boolean retainOffsets (int lo, int hi) {
+        if (lo > hi || hi < 0 || lo >= this.span) {
+            boolean changed = this.size != 0;
+            clear();
+            return changed;
+        }
+        lo = Math.max(lo, 0);
+        hi = Math.min(hi, this.span - 1);
+        int loWord = lo >>> 6, hiWord = hi >>> 6;
+        boolean changed = false;
+        for (int w = 0; w < this.words.length; w++) {
+            long mask;
+            if (w < loWord || w > hiWord) {
+                mask = 0;
+            } else {
+                mask = -1L;
+                if (w == loWord) { mask &= -1L << lo; }
+                if (w == hiWord) { mask &= -1L >>> (WORD_BITS - 1 - (hi & 63)); }
+            }
+            long kept = this.words[w] & mask;
+            if (kept != this.words[w]) {
+                own();
+                this.size -= Long.bitCount(this.words[w] ^ kept);
+                this.words[w] = kept;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes every date from this domain that is not also in the other,
+     * which must span the same range.
+     * @param other The MeetingDomain to intersect with
+     * @return Whether or not the domain changed.
+     */
+    public boolean retainAll (MeetingDomain other) {
+        checkCompatible(other);
+        boolean changed = false;
+        for (int w = 0; w < this.words.length; w++) {
+            long kept = this.words[w] & other.words[w];
+            if (kept != this.words[w]) {
+                own();
+                this.size -= Long.bitCount(this.words[w] ^ kept);
+                this.words[w] = kept;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes every date from this domain.
+     */
+    public void clear () {
+        if (this.shared) {
+            this.words = new long[this.words.length];
+            this.shared = false;
+        } else {
+            Arrays.fill(this.words, 0L);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Gives this domain its own copy of a shared bitset before it is written.
+     */
+    private void own () {
+        if (this.shared) {
+            this.words = this.words.clone();
+            this.shared = false;
+        }
+    }
+
+    // Trail Support
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return The number of longs needed to snapshot this domain's bitset.
+     */
+    int wordCount () {
+        return this.words.length;
+    }
+
+    /**
+     * Copies this domain's bitset into the given array so that it may later
+     * be restored with restoreWords.
+     * @param dest Array of at least wordCount() longs
+     */
+    void copyWordsTo (long[] dest) {
+        System.arraycopy(this.words, 0, dest, 0, this.words.length);
+    }
+
+    /**
+     * Restores this domain to a snapshot taken by copyWordsTo.
+     * @param src Array holding the snapshot
+     * @param size The size of the domain when the snapshot was taken
+     */
+    void restoreWords (long[] src, int size) {
+        own();
+        System.arraycopy(src, 0, this.words, 0, this.words.length);
+        this.size = size;
+    }
+
+    private void checkCompatible (MeetingDomain other) {
+        if (!isCompatible(other)) {
+            throw new IllegalArgumentException("MeetingDomains must span the same range");
+        }
+    }
+
+    private static int wordCount (int span) {
+        return (span + WORD_BITS - 1) / WORD_BITS;
+    }
+
     @Override
     public String toString () {
         return this.domainValues.toString();
     }
 
+    /**
+     * Set view over the bitset that materializes LocalDates only as they are
+     * iterated, for callers that want to treat the domain as a Set of dates.
+     */
+    private class DomainView extends AbstractSet<LocalDate> {
+
+        @Override
+        public int size () {
+            return MeetingDomain.this.size;
+        }
+
+        @Override
+        public boolean contains (Object o) {
+            return o instanceof LocalDate && MeetingDomain.this.contains(((LocalDate) o).toEpochDay());
+        }
+
+        @Override
+        public boolean remove (Object o) {
+            return o instanceof LocalDate && MeetingDomain.this.remove(((LocalDate) o).toEpochDay());
+        }
+
+        /**
+         * Adds a date back into the domain, which, unlike a HashSet of dates,
+         * can only hold dates between its rangeStart and rangeEnd.
+         * @throws IllegalArgumentException If the date is outside of the range
+         */
+        @Override
+        public boolean add (LocalDate date) {
+            long offset = date.toEpochDay() - MeetingDomain.this.origin;
+            if (offset < 0 || offset >= MeetingDomain.this.span) {
+                throw new IllegalArgumentException("Date " + date + " is outside of the domain's range");
+            }
+            if (containsOffset((int) offset)) {
+                return false;
+            }
+            own();
+            MeetingDomain.this.words[(int) offset >>> 6] |= 1L << offset;
+            MeetingDomain.this.size++;
+            return true;
+        }
+
+        @Override
+        public Iterator<LocalDate> iterator () {
+            return new Iterator<LocalDate>() {
+                private int next = nextOffset(0), last = -1;
+
+                @Override
+                public boolean hasNext () {
+                    return this.next != -1;
+                }
+
+                @Override
+                public LocalDate next () {
+                    if (this.next == -1) { throw new NoSuchElementException(); }
+                    this.last = this.next;
+                    this.next = nextOffset(this.next + 1);
+                    return LocalDate.ofEpochDay(toEpochDay(this.last));
+                }
+
+                @Override
+                public void remove () {
+                    if (this.last == -1) { throw new IllegalStateException(); }
+                    removeOffset(this.last);
+                    this.last = -1;
+                }
+            };
+        }
+    }
+
 }
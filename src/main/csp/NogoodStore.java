@@ -0,0 +1,213 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Bounded store of nogoods learned during search: sets of (meeting, day)
+ * assignments proven to extend to no solution. Each nogood watches one of
+ * its assignments that does not currently hold, so assigning a meeting only
+ * visits the nogoods watching that assignment: each either moves its watch
+ * to another assignment that does not hold, or, if there is none, has every
+ * assignment holding and rules out the new one. Watches need no undoing on
+ * backtrack, since unassigning a meeting can only make assignments not hold.
+ *
+ * When the store is full, the half of it least recently learned or used to
+ * rule out an assignment is evicted. Nogoods are held in flat arrays of
+ * fixed-size slots that grow with the store up to its capacity and are then
+ * reused, so learning and eviction allocate nothing once the store is full.
+ */
+class NogoodStore {
+
+    // the longest nogood worth learning; longer ones rarely recur
+    static final int MAX_LENGTH = 16;
+
+    private final List<MeetingDomain> domains;
+    private final int capacity;
+
+    // the meetings and epoch days of each nogood's assignments, in its slot
+    // of MAX_LENGTH entries from id * MAX_LENGTH, and their number
+    private int[] meetings = new int[0];
+    private long[] days = new long[0];
+    private final int[] length;
+    // the index of the assignment each nogood watches, and the next nogood
+    // in the same watch list, or -1
+    private final int[] watch;
+    private final int[] next;
+    private final long[] lastUsed;
+    private long clock;
+    private int size;
+    private long learned;
+    // scratch for finding the eviction threshold, allocated on first eviction
+    private long[] order;
+
+    // heads[m][offset] is the first nogood watching m on the day at offset,
+    // or -1; allocated per meeting on first use
+    private final int[][] heads;
+
+    /**
+     * Creates a new empty store.
+     * @param domains Meeting-indexed MeetingDomains of the search
+     * @param capacity The most nogoods to hold at once
+     */
+    NogoodStore (List<MeetingDomain> domains, int capacity) {
+        this.domains = domains;
+        this.capacity = capacity;
+        this.length = new int[capacity];
+        this.watch = new int[capacity];
+        this.next = new int[capacity];
+        this.lastUsed = new long[capacity];
+        this.heads = new int[domains.size()][];
+    }
+
+    /**
+     * @return The number of nogoods held.
+     */
+    int size () {
+        return this.size;
+    }
+
+    /**
+     * @return The number of nogoods recorded so far, including evicted ones.
+     */
+    long learned () {
+        return this.learned;
+    }
+
+    /**
+     * Records a nogood, all of whose assignments must hold when it is learned.
+     * It watches its last assignment, which must be the first to be undone.
+     * @param meetings The meetings of the nogood's assignments
+     * @param days The epoch day of each of those meetings
+     * @param length The number of assignments
+     */
+    void add (int[] meetings, long[] days, int length) {
+        if (this.size == this.capacity) {
+            evict();
+        }
+        int id = this.size++;
+        if (this.meetings.length < this.size * MAX_LENGTH) {
+            int slots = Math.min(this.capacity, Math.max(16, this.size * 2));
+            this.meetings = Arrays.copyOf(this.meetings, slots * MAX_LENGTH);
+            this.days = Arrays.copyOf(this.days, slots * MAX_LENGTH);
+        }
+        System.arraycopy(meetings, 0, this.meetings, id * MAX_LENGTH, length);
+        System.arraycopy(days, 0, this.days, id * MAX_LENGTH, length);
+        this.length[id] = length;
+        this.lastUsed[id] = this.clock++;
+        this.learned++;
+        link(id, length - 1);
+    }
+
+    /**
+     * Visits the nogoods watching the given, newly made assignment, moving
+     * each watch to an assignment that does not hold where possible.
+     * @param meeting The meeting just assigned
+     * @param assignment Epoch days of the meetings, indexed by meeting
+     * @param assigned Whether or not each meeting, by index, is assigned
+     * @return The id of a nogood all of whose assignments now hold, which
+     *         include the given one, or -1 if there is none.
+     */
+    int check (int meeting, long[] assignment, boolean[] assigned) {
+        int[] head = this.heads[meeting];
+        if (head == null) {
+            return -1;
+        }
+        long offset = this.domains.get(meeting).offsetOf(assignment[meeting]);
+        if (offset < 0 || offset >= head.length) {
+            return -1;
+        }
+        int prev = -1;
+        for (int id = head[(int) offset]; id != -1; ) {
+            int following = this.next[id];
+            int base = id * MAX_LENGTH;
+            int free = -1;
+            for (int i = 0; i < this.length[id] && free == -1; i++) {
+                int m = this.meetings[base + i];
+                if (!assigned[m] || assignment[m] != this.days[base + i]) {
+                    free = i;
+                }
+            }
+            if (free == -1) {
+                this.lastUsed[id] = this.clock++;
+                return id;
+            }
+            // unlink from this list, and watch the assignment that does not hold
+            if (prev == -1) {
+                head[(int) offset] = following;
+            } else {
+                this.next[prev] = following;
+            }
+            link(id, free);
+            id = following;
+        }
+        return -1;
+    }
+
+    /**
+     * @param id The id of a nogood, as returned by check
+     * @return The number of its assignments.
+     */
+    int length (int id) {
+        return this.length[id];
+    }
+
+    /**
+     * @param id The id of a nogood, as returned by check
+     * @param i The index of one of its assignments
+     * @return The meeting of that assignment.
+     */
+    int meeting (int id, int i) {
+        return this.meetings[id * MAX_LENGTH + i];
+    }
+
+    /**
+     * Adds the nogood to the watch list of its i-th assignment.
+     */
+    private void link (int id, int i) {
+        int meeting = this.meetings[id * MAX_LENGTH + i];
+        MeetingDomain domain = this.domains.get(meeting);
+        if (this.heads[meeting] == null) {
+            this.heads[meeting] = new int[domain.span()];
+            Arrays.fill(this.heads[meeting], -1);
+        }
+        int offset = (int) domain.offsetOf(this.days[id * MAX_LENGTH + i]);
+        this.watch[id] = i;
+        this.next[id] = this.heads[meeting][offset];
+        this.heads[meeting][offset] = id;
+    }
+
+    /**
+     * Keeps the most recently used half of the nogoods, rebuilding every
+     * watch list from their current watches.
+     */
+    private void evict () {
+        if (this.order == null) {
+            this.order = new long[this.capacity];
+        }
+        System.arraycopy(this.lastUsed, 0, this.order, 0, this.size);
+        Arrays.sort(this.order, 0, this.size);
+        // lastUsed values are distinct, so exactly the evicted ones are at most this
+        long threshold = this.order[Math.max(1, this.size / 2) - 1];
+        int kept = 0;
+        for (int id = 0; id < this.size; id++) {
+            if (this.lastUsed[id] > threshold) {
+                System.arraycopy(this.meetings, id * MAX_LENGTH, this.meetings, kept * MAX_LENGTH, this.length[id]);
+                System.arraycopy(this.days, id * MAX_LENGTH, this.days, kept * MAX_LENGTH, this.length[id]);
+                this.length[kept] = this.length[id];
+                this.watch[kept] = this.watch[id];
+                this.lastUsed[kept] = this.lastUsed[id];
+                kept++;
+            }
+        }
+        this.size = kept;
+        for (int[] head : this.heads) {
+            if (head != null) {
+                Arrays.fill(head, -1);
+            }
+        }
+        for (int id = 0; id < kept; id++) {
+            link(id, this.watch[id]);
+        }
+    }
+
+}
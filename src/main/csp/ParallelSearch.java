@@ -0,0 +1,122 @@
+package main.csp;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel backtracking search on a ForkJoinPool. Near the top of the tree,
+ * a task branches on the chosen meeting and forks one subtask per date,
+ * each searching its subtree on its own copy of the domains and assignment;
+ * deeper down, or once enough tasks are queued for idle workers to steal, a
+ * task runs a sequential BacktrackingSearch over its whole subtree. Idle
+ * workers steal the oldest, i.e., shallowest and largest, queued subtrees,
+ * which balances uneven subtrees. The first task to find a solution sets a
+ * shared flag that stops all the others, and every task also watches the
+ * caller's stop flag. Searches of the same parallelism share one pool.
+ */
+class ParallelSearch extends RecursiveTask<long[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    // the deepest a task may branch rather than search sequentially
+    static final int MAX_SPLIT_DEPTH = 8;
+    // a task stops branching once its worker has this many more tasks queued
+    // than other workers are likely to steal
+    static final int SURPLUS = 2;
+
+    // one pool per parallelism, whose idle workers time out by themselves
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final BacktrackingSearch parent;
+    private final int meeting, offset;
+    private final AtomicBoolean done;
+
+    /**
+     * Creates a task searching the subtree in which the given meeting has the
+     * date at the given offset, on top of the parent's assignment.
+     */
+    private ParallelSearch (BacktrackingSearch parent, int meeting, int offset, AtomicBoolean done) {
+        this.parent = parent;
+        this.meeting = meeting;
+        this.offset = offset;
+        this.done = done;
+    }
+
+    /**
+     * Searches the given network on the shared pool of the options'
+     * parallelism.
+     * @param network The compiled constraints of the problem
+     * @param domains Meeting-indexed MeetingDomains, which are only copied
+     * @param options Configuration of the search in each task
+     * @param stop Flag that, once set, makes the search give up, or null
+     * @return Epoch days of a consistent assignment indexed by meeting, or
+     *         null if none exists.
+     * @throws CancellationException If the stop flag is set, or the calling
+     *         thread interrupted, first
+     */
+    static long[] solve (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options,
+            AtomicBoolean stop) {
+        AtomicBoolean done = new AtomicBoolean();
+        BacktrackingSearch root = new BacktrackingSearch(network, domains, options, stop, done);
+        ForkJoinPool pool = POOLS.computeIfAbsent(options.parallelism(), ForkJoinPool::new);
+        ForkJoinTask<long[]> task = pool.submit(() -> search(root, done));
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            done.set(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    @Override
+    protected long[] compute () {
+        if (this.parent.stopped()) {
+            return null;
+        }
+        BacktrackingSearch search = this.parent.branch(this.meeting, this.offset);
+        return search == null ? null : search(search, this.done);
+    }
+
+    /**
+     * Searches the subtree below the given search's assignment, forking a
+     * subtask per date of the chosen meeting while near the top of the tree
+     * and few tasks are queued.
+     */
+    private static long[] search (BacktrackingSearch search, AtomicBoolean done) {
+        if (search.startDepth() >= MAX_SPLIT_DEPTH || getSurplusQueuedTaskCount() > SURPLUS
+                || search.isComplete()) {
+            long[] solution = search.solve();
+            if (solution != null) {
+                done.set(true);
+            }
+            return solution;
+        }
+        int[] choice = search.branchingChoice();
+        List<ParallelSearch> tasks = new ArrayList<>(choice.length - 1);
+        for (int i = 1; i < choice.length; i++) {
+            tasks.add(new ParallelSearch(search, choice[0], choice[i], done));
+        }
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        // fork the later dates, keeping the first for this thread, so that
+        // idle workers steal from the end of the ordering
+        for (int i = tasks.size() - 1; i > 0; i--) {
+            tasks.get(i).fork();
+        }
+        long[] solution = tasks.get(0).compute();
+        for (int i = 1; i < tasks.size(); i++) {
+            long[] found = tasks.get(i).join();
+            if (solution == null) {
+                solution = found;
+            }
+        }
+        return solution;
+    }
+
+}
@@ -0,0 +1,166 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Solver for Simple Temporal Problems: constraint networks in which every
+ * binary relation is one of <, <=, ==, >=, or > (no !=). Each such relation
+ * is a difference constraint, e.g., 0 < 1 is 1 >= 0 + 1, so the earliest
+ * and latest date of every meeting are longest / shortest path distances,
+ * found by label-correcting (Bellman-Ford style) propagation without any
+ * backtracking. A positive cycle of lower bounds (a negative cycle in the
+ * shortest path formulation) makes the problem unsatisfiable.
+ *
+ * Unary constraints act as each meeting's bounds. Any days they exclude from
+ * within the bounds are skipped over as bounds are raised or lowered, which
+ * keeps the propagation exact since difference constraints are monotone.
+ */
+class STPSolver {
+
+    private final ConstraintNetwork network;
+    private final List<MeetingDomain> domains;
+    private long[] earliest, latest;
+    // the number of passes over the worklist before a cycle is reported
+    private int limit;
+
+    /**
+     * Creates a new STP solver over the given network, whose domains must
+     * already satisfy the network's unary constraints.
+     * @param network The compiled constraints, which must qualify()
+     * @param domains Meeting-indexed MeetingDomains
+     */
+    STPSolver (ConstraintNetwork network, List<MeetingDomain> domains) {
+        this.network = network;
+        this.domains = domains;
+    }
+
+    /**
+     * @param network A compiled constraint network
+     * @return Whether or not every binary relation of the network is an
+     *         ordering or equality, making it a Simple Temporal Problem.
+     */
+    static boolean qualifies (ConstraintNetwork network) {
+        for (int op : network.ARC_OP) {
+            if (op == 0 || (op & (DateConstraint.LT | DateConstraint.GT)) == (DateConstraint.LT | DateConstraint.GT)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the earliest date of every meeting; the latest dates are only
+     * computed if asked for, since the earliest already form a solution.
+     * @return false if the problem is unsatisfiable, true otherwise.
+     */
+    boolean solve () {
+        int n = this.network.N_MEETINGS;
+        boolean holes = false;
+        for (MeetingDomain domain : this.domains) {
+            if (domain.isEmpty()) {
+                return false;
+            }
+            holes |= domain.size() != domain.lastOffset() - domain.firstOffset() + 1;
+        }
+        // without holes, a bound still changing after n passes must be on a
+        // positive cycle; with them, bounds still run off of their domain
+        this.limit = holes ? Integer.MAX_VALUE : n;
+        this.earliest = propagate(true, this.limit);
+        return this.earliest != null;
+    }
+
+    /**
+     * @return The earliest epoch day of every meeting, which together form a
+     *         solution, or null if solve() has not succeeded.
+     */
+    long[] earliest () {
+        return this.earliest;
+    }
+
+    /**
+     * @return The latest epoch day of every meeting, which together form a
+     *         solution, or null if solve() has not succeeded.
+     */
+    long[] latest () {
+        // once the earliest dates are consistent, the latest ones must be too
+        if (this.latest == null && this.earliest != null) {
+            this.latest = propagate(false, this.limit);
+        }
+        return this.latest;
+    }
+
+    /**
+     * Raises every meeting's lower bound (or lowers its upper bound) until all
+     * difference constraints hold, using a FIFO worklist of meetings whose
+     * bound changed. The worklist is processed in passes, each covering the
+     * meetings queued by the one before, and after pass k every bound accounts
+     * for all paths of up to k + 1 arcs, so without holes a bound can only
+     * still change after n passes if it is on a positive cycle.
+     * @param lower true to compute earliest days, false for latest
+     * @param limit The number of passes after which a cycle is reported
+     * @return The bound of each meeting as an epoch day, or null if some bound
+     *         left its domain or was still changing after limit passes.
+     */
+    private long[] propagate (boolean lower, int limit) {
+        int n = this.network.N_MEETINGS;
+        long[] bound = new long[n];
+        int[] queue = new int[Math.max(1, n)];
+        boolean[] inQueue = new boolean[n];
+        int head = 0, size = 0, passes = 0;
+        for (int m = 0; m < n; m++) {
+            MeetingDomain domain = this.domains.get(m);
+            bound[m] = domain.toEpochDay(lower ? domain.firstOffset() : domain.lastOffset());
+            queue[size++] = m;
+            inQueue[m] = true;
+        }
+        // the number of meetings left in the current pass
+        int remaining = size;
+        while (size > 0) {
+            if (remaining == 0) {
+                if (++passes > limit) {
+                    return null;
+                }
+                remaining = size;
+            }
+            remaining--;
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            inQueue[u] = false;
+            // lower bounds flow from tail to head of arcs tail <= head - w, and
+            // upper bounds from head back to tail
+            int[] arcs = lower ? null : this.network.ARCS_INTO[u];
+            int count = lower ? this.network.ARC_START[u + 1] - this.network.ARC_START[u] : arcs.length;
+            for (int k = 0; k < count; k++) {
+                int arc = lower ? this.network.ARC_START[u] + k : arcs[k];
+                int op = this.network.ARC_OP[arc];
+                if ((op & DateConstraint.GT) != 0) {
+                    continue;
+                }
+                long w = op == DateConstraint.LT ? 1 : 0;
+                int v = lower ? this.network.ARC_HEAD[arc] : this.network.ARC_TAIL[arc];
+                long needed = lower ? bound[u] + w : bound[u] - w;
+                if (lower ? needed <= bound[v] : needed >= bound[v]) {
+                    continue;
+                }
+                MeetingDomain domain = this.domains.get(v);
+                long offset = domain.offsetOf(needed);
+                int snapped = lower
+                        ? (offset >= domain.span() ? -1 : domain.nextOffset((int) offset))
+                        : (offset < 0 ? -1 : domain.prevOffset((int) Math.min(offset, domain.span() - 1)));
+                if (snapped == -1) {
+                    return null;
+                }
+                bound[v] = domain.toEpochDay(snapped);
+                if (!inQueue[v]) {
+                    int slot = head + size;
+                    queue[slot >= n ? slot - n : slot] = v;
+                    size++;
+                    inQueue[v] = true;
+                }
+            }
+        }
+        return bound;
+    }
+
+}
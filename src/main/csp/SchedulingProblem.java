@@ -0,0 +1,32 @@
+package main.csp;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * One meeting scheduling problem of a batch: the arguments of a single
+ * CSPSolver.solve call.
+ */
+public class SchedulingProblem {
+
+    public final int N_MEETINGS;
+    public final LocalDate RANGE_START, RANGE_END;
+    public final Set<DateConstraint> CONSTRAINTS;
+
+    /**
+     * Constructs a new problem.
+     * @param nMeetings The number of meetings that must be scheduled, indexed
+     *                  from 0 to n-1
+     * @param rangeStart The start date (inclusive) of every meeting's domain
+     * @param rangeEnd The end date (inclusive) of every meeting's domain
+     * @param constraints Date constraints on the meeting times
+     */
+    public SchedulingProblem (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints) {
+        this.N_MEETINGS = nMeetings;
+        this.RANGE_START = rangeStart;
+        this.RANGE_END = rangeEnd;
+        this.CONSTRAINTS = constraints;
+    }
+
+}
@@ -0,0 +1,74 @@
+package main.csp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a running backtracking search, given to it through
+ * SolverOptions.progress, which any other thread may read while it runs,
+ * e.g., to monitor or log how far it has got. The search only publishes
+ * them with opaque writes, which are cheap enough for every node, so a
+ * reader sees recent rather than exact values. Every search run with the
+ * same options, e.g., the tasks of a parallel search, reports to the same
+ * counters, which then show whichever reported last.
+ */
+public class SearchProgress {
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger nogoods = new AtomicInteger();
+    private final AtomicLong learned = new AtomicLong();
+
+    /**
+     * @return The number of meetings assigned at the search's current choice
+     *         point.
+     */
+    public int depth () {
+        return this.depth.getOpaque();
+    }
+
+    /**
+     * @return The number of failed assignments so far in the search's current
+     *         run, which restarts reset.
+     */
+    public long failures () {
+        return this.failures.getOpaque();
+    }
+
+    /**
+     * @return The number of learned nogoods the search currently holds, which
+     *         never exceeds SolverOptions.nogoods.
+     */
+    public int nogoods () {
+        return this.nogoods.getOpaque();
+    }
+
+    /**
+     * @return The number of nogoods the search has learned so far, including
+     *         those since evicted to make room for others.
+     */
+    public long learned () {
+        return this.learned.getOpaque();
+    }
+
+    /**
+     * Publishes the search's current state.
+     * @param depth The depth of its current choice point
+     * @param failures Its failed assignments so far in this run
+     */
+    void report (int depth, long failures) {
+        this.depth.setOpaque(depth);
+        this.failures.setOpaque(failures);
+    }
+
+    /**
+     * Publishes the state of the search's nogood store.
+     * @param nogoods The number of nogoods it holds
+     * @param learned The number it has learned so far
+     */
+    void reportNogoods (int nogoods, long learned) {
+        this.nogoods.setOpaque(nogoods);
+        this.learned.setOpaque(learned);
+    }
+
+}
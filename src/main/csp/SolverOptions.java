@@ -0,0 +1,407 @@
+package main.csp;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration for a CSPSolver run, specifying which engine solves it and
+ * how the backtracking search should behave. Setters return this options
+ * object so that configurations may be chained, e.g.:
+ *   new SolverOptions().propagation(Propagation.FORWARD_CHECKING)
+ */
+public class SolverOptions {
+
+    /**
+     * Which engine solves the problem.
+     */
+    public enum Engine {
+        /** Routes problems of a special shape to specialized engines, e.g., STPs */
+        AUTO,
+        /** Always uses arc consistency followed by backtracking search */
+        BACKTRACKING
+    }
+
+    /**
+     * How much constraint propagation is performed after each assignment
+     * made during search.
+     */
+    public enum Propagation {
+        /** No propagation: each assignment is only checked against assigned neighbors */
+        NONE,
+        /** Prunes the domains of unassigned neighbors of the newly assigned meeting */
+        FORWARD_CHECKING,
+        /** Maintains arc consistency by re-running AC-3 from the newly assigned meeting's arcs */
+        MAC
+    }
+
+    /**
+     * How the search chooses which unassigned meeting to assign next.
+     */
+    public enum VariableOrdering {
+        /** Meetings in index order */
+        INDEX,
+        /** Minimum remaining values: the meeting with the smallest domain */
+        MRV,
+        /** MRV, breaking ties by the most constraints on unassigned meetings */
+        MRV_DEGREE,
+        /** The smallest ratio of domain size to constraints on unassigned meetings */
+        DOM_DEG
+    }
+
+    /**
+     * The order in which the search tries the dates of the chosen meeting.
+     */
+    public enum ValueOrdering {
+        /** Earliest date first */
+        CHRONOLOGICAL,
+        /** Latest date first */
+        REVERSE,
+        /** Dates ruling out the fewest values of unassigned neighbors first */
+        LEAST_CONSTRAINING,
+        /** A random permutation drawn from the seeded generator */
+        RANDOM
+    }
+
+    /**
+     * How arcs are revised, both in pre-processing and during search.
+     */
+    public enum ArcConsistencyAlgorithm {
+        /** Rescans the head's domain for a support of every tail value */
+        AC3,
+        /** Resumes each tail value's search for support from its last known support */
+        AC2001,
+        /** Revises with a kernel specialized to the arc's operator, e.g., on bounds for < */
+        SPECIALIZED
+    }
+
+    /**
+     * When the search gives up on its current run and restarts from scratch.
+     */
+    public enum Restarts {
+        /** Never: a single run searches to completion */
+        NONE,
+        /** After restartBase times the i-th term of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ... failures */
+        LUBY,
+        /** After restartBase failures, growing by half again on every restart */
+        GEOMETRIC
+    }
+
+    private Engine engine = Engine.AUTO;
+    private Propagation propagation = Propagation.MAC;
+    private ArcConsistencyAlgorithm arcConsistency = ArcConsistencyAlgorithm.SPECIALIZED;
+    private VariableOrdering variableOrdering = VariableOrdering.DOM_DEG;
+    private ValueOrdering valueOrdering = ValueOrdering.CHRONOLOGICAL;
+    private boolean allDifferent = true;
+    private boolean backjumping = true;
+    private int nogoods = 4096;
+    private Restarts restarts = Restarts.NONE;
+    private int restartBase = 100;
+    private int parallelism = 1;
+    private long seed = 0;
+    private Executor executor = null;
+    private SearchProgress progress = null;
+    private List<SolverOptions> portfolio = Collections.emptyList();
+
+    /**
+     * @return The engine that solves the problem.
+     */
+    public Engine engine () {
+        return this.engine;
+    }
+
+    /**
+     * Sets the engine that solves the problem.
+     * @param engine The new engine
+     * @return This SolverOptions
+     */
+    public SolverOptions engine (Engine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * @return The propagation level used during search.
+     */
+    public Propagation propagation () {
+        return this.propagation;
+    }
+
+    /**
+     * Sets the propagation level used during search.
+     * @param propagation The new propagation level
+     * @return This SolverOptions
+     */
+    public SolverOptions propagation (Propagation propagation) {
+        this.propagation = propagation;
+        return this;
+    }
+
+    /**
+     * @return The algorithm used to revise arcs.
+     */
+    public ArcConsistencyAlgorithm arcConsistency () {
+        return this.arcConsistency;
+    }
+
+    /**
+     * Sets the algorithm used to revise arcs.
+     * @param arcConsistency The new arc consistency algorithm
+     * @return This SolverOptions
+     */
+    public SolverOptions arcConsistency (ArcConsistencyAlgorithm arcConsistency) {
+        this.arcConsistency = arcConsistency;
+        return this;
+    }
+
+    /**
+     * @return The heuristic choosing the next meeting to assign.
+     */
+    public VariableOrdering variableOrdering () {
+        return this.variableOrdering;
+    }
+
+    /**
+     * Sets the heuristic choosing the next meeting to assign.
+     * @param variableOrdering The new variable ordering
+     * @return This SolverOptions
+     */
+    public SolverOptions variableOrdering (VariableOrdering variableOrdering) {
+        this.variableOrdering = variableOrdering;
+        return this;
+    }
+
+    /**
+     * @return The order in which dates of the chosen meeting are tried.
+     */
+    public ValueOrdering valueOrdering () {
+        return this.valueOrdering;
+    }
+
+    /**
+     * Sets the order in which dates of the chosen meeting are tried.
+     * @param valueOrdering The new value ordering
+     * @return This SolverOptions
+     */
+    public SolverOptions valueOrdering (ValueOrdering valueOrdering) {
+        this.valueOrdering = valueOrdering;
+        return this;
+    }
+
+    /**
+     * @return Whether or not cliques of meetings that must all be on different
+     *         days are filtered as all-different constraints.
+     */
+    public boolean allDifferent () {
+        return this.allDifferent;
+    }
+
+    /**
+     * Sets whether cliques of meetings that must all be on different days are
+     * detected and filtered by bipartite matching, both before and during
+     * search, in addition to their pairwise arcs.
+     * @param allDifferent The new setting
+     * @return This SolverOptions
+     */
+    public SolverOptions allDifferent (boolean allDifferent) {
+        this.allDifferent = allDifferent;
+        return this;
+    }
+
+    /**
+     * @return Whether or not the search backjumps to the cause of each dead end.
+     */
+    public boolean backjumping () {
+        return this.backjumping;
+    }
+
+    /**
+     * Sets whether the search, on exhausting a meeting's values, jumps back to
+     * the deepest meeting in its conflict set (conflict-directed backjumping)
+     * rather than to the previous meeting. Only applies without propagation or
+     * with forward checking; under MAC the search always backtracks
+     * chronologically.
+     * @param backjumping The new setting
+     * @return This SolverOptions
+     */
+    public SolverOptions backjumping (boolean backjumping) {
+        this.backjumping = backjumping;
+        return this;
+    }
+
+    /**
+     * @return The most nogoods the search keeps at once.
+     */
+    public int nogoods () {
+        return this.nogoods;
+    }
+
+    /**
+     * Sets the capacity of the store of nogoods, i.e., sets of assignments
+     * proven to lead to no solution, that the search learns from its dead
+     * ends and checks before descending. The least recently used half is
+     * evicted when the store is full.
+     * @param nogoods The new capacity, or 0 to learn no nogoods
+     * @return This SolverOptions
+     */
+    public SolverOptions nogoods (int nogoods) {
+        if (nogoods < 0) {
+            throw new IllegalArgumentException("Nogood capacity must not be negative");
+        }
+        this.nogoods = nogoods;
+        return this;
+    }
+
+    /**
+     * @return When the search restarts.
+     */
+    public Restarts restarts () {
+        return this.restarts;
+    }
+
+    /**
+     * Sets when the search abandons its current run, after a number of
+     * failed assignments, and starts over. Restarted runs break ties in
+     * variable and value ordering randomly, from the seeded generator, and
+     * try the date each meeting last had first (phase saving), while keeping
+     * every nogood learned so far.
+     * @param restarts The new restart strategy
+     * @return This SolverOptions
+     */
+    public SolverOptions restarts (Restarts restarts) {
+        this.restarts = restarts;
+        return this;
+    }
+
+    /**
+     * @return The number of failures allowed before the first restart.
+     */
+    public int restartBase () {
+        return this.restartBase;
+    }
+
+    /**
+     * Sets the number of failed assignments after which the search first
+     * restarts, which the restart strategy scales for later runs.
+     * @param restartBase The new base, at least 1
+     * @return This SolverOptions
+     */
+    public SolverOptions restartBase (int restartBase) {
+        if (restartBase < 1) {
+            throw new IllegalArgumentException("Restart base must be positive");
+        }
+        this.restartBase = restartBase;
+        return this;
+    }
+
+    /**
+     * @return The number of worker threads backtracking search is split across.
+     */
+    public int parallelism () {
+        return this.parallelism;
+    }
+
+    /**
+     * Sets the number of worker threads of the ForkJoinPool on which
+     * backtracking search is split: the top of the search tree is divided
+     * into subtrees by the dates of the chosen meetings, each searched on its
+     * own copy of the domains, and idle workers steal unsearched subtrees.
+     * Which solution is found first may then vary from run to run.
+     * @param parallelism The new number of workers, or 1 to search on the
+     *                    calling thread
+     * @return This SolverOptions
+     */
+    public SolverOptions parallelism (int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @return The seed of any randomized choices made by the search.
+     */
+    public long seed () {
+        return this.seed;
+    }
+
+    /**
+     * Sets the seed of any randomized choices made by the search, such that
+     * runs with equal options and seeds make the same choices.
+     * @param seed The new seed
+     * @return This SolverOptions
+     */
+    public SolverOptions seed (long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @return The executor on which independent components of the problem are
+     *         solved, or null if they are solved one at a time on the calling
+     *         thread.
+     */
+    public Executor executor () {
+        return this.executor;
+    }
+
+    /**
+     * Sets the executor on which the independent components of the problem
+     * (groups of meetings with no binary constraints between them) are solved
+     * in parallel.
+     * @param executor The new executor, or null to solve components one at a
+     *                 time on the calling thread
+     * @return This SolverOptions
+     */
+    public SolverOptions executor (Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return The counters backtracking search reports its state to, or null
+     *         if it reports none.
+     */
+    public SearchProgress progress () {
+        return this.progress;
+    }
+
+    /**
+     * Sets counters to which backtracking search reports its state at every
+     * node, so that other threads can monitor it while it runs.
+     * @param progress The new counters, or null to report none
+     * @return This SolverOptions
+     */
+    public SolverOptions progress (SearchProgress progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * @return The configurations run concurrently in portfolio mode, or an
+     *         empty list if this configuration is run alone.
+     */
+    public List<SolverOptions> portfolio () {
+        return this.portfolio;
+    }
+
+    /**
+     * Sets configurations to run concurrently on the same problem, e.g., with
+     * different orderings, propagation, or restart seeds, each on its own
+     * copy of the domains. The first to finish without throwing gives the
+     * result, and the others are stopped. Configurations are started on this
+     * configuration's executor, or each on its own thread if it has none;
+     * their own portfolios are ignored. Each holds its thread until it
+     * finishes, so that executor must not be a bounded pool that the
+     * configurations' own executors also solve components on, or their
+     * components may never get a thread.
+     * @param configurations The configurations to race, or none to run this
+     *                       configuration alone
+     * @return This SolverOptions
+     */
+    public SolverOptions portfolio (SolverOptions... configurations) {
+        this.portfolio = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(configurations)));
+        return this;
+    }
+
+}
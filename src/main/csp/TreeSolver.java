@@ -0,0 +1,150 @@
+package main.csp;
+
+import java.util.*;
+
+/**
+ * Solver for networks whose binary constraint graph is a forest. Each tree
+ * is rooted and ordered breadth first; directional arc consistency is then
+ * enforced from the leaves up to the root, making every parent value
+ * supported by each of its children, so that a single top-down pass can
+ * assign every meeting without backtracking, in O(n * d^2) time or better
+ * with the ArcConsistency kernels.
+ */
+class TreeSolver {
+
+    private final ConstraintNetwork network;
+    private final List<MeetingDomain> domains;
+    private final ArcConsistency arcConsistency;
+
+    // conditioned meetings, whose domains are singletons already enforced on
+    // their neighbors, are left out of the forest
+    private final boolean[] conditioned;
+
+    // breadth-first order of every tree, with each meeting's parent and the
+    // arc from its parent to it
+    private final int[] order, parent, parentArc;
+    private final int size;
+
+    /**
+     * Creates a new tree solver over the given network, whose domains must
+     * already satisfy the network's unary constraints.
+     * @param network The compiled constraints, which must qualify()
+     * @param domains Meeting-indexed MeetingDomains, which will be pruned
+     * @param options Configuration choosing how arcs are revised
+     */
+    TreeSolver (ConstraintNetwork network, List<MeetingDomain> domains, SolverOptions options) {
+        this(network, domains, new ArcConsistency(network, domains, options.arcConsistency()),
+                new boolean[network.N_MEETINGS]);
+    }
+
+    /**
+     * Creates a new tree solver over the forest left by removing the given
+     * conditioned meetings from the network.
+     * @param network The compiled constraints
+     * @param domains Meeting-indexed MeetingDomains, which will be pruned
+     * @param arcConsistency Propagator over the same network and domains
+     * @param conditioned Meetings whose removal leaves a forest, each of which
+     *                    must hold a single value, with every neighbor's domain
+     *                    arc consistent with it, before each solve
+     */
+    TreeSolver (ConstraintNetwork network, List<MeetingDomain> domains, ArcConsistency arcConsistency,
+            boolean[] conditioned) {
+        this.network = network;
+        this.domains = domains;
+        this.arcConsistency = arcConsistency;
+        this.conditioned = conditioned;
+        int n = network.N_MEETINGS;
+        this.order = new int[n];
+        this.parent = new int[n];
+        this.parentArc = new int[n];
+        boolean[] visited = conditioned.clone();
+        int size = 0;
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            this.parent[root] = -1;
+            this.order[size++] = root;
+            for (int i = size - 1; i < size; i++) {
+                int u = this.order[i];
+                int[] neighbors = network.NEIGHBORS[u];
+                for (int k = 0; k < neighbors.length; k++) {
+                    if (!visited[neighbors[k]]) {
+                        visited[neighbors[k]] = true;
+                        this.parent[neighbors[k]] = u;
+                        this.parentArc[neighbors[k]] = network.ARC_START[u] + k;
+                        this.order[size++] = neighbors[k];
+                    }
+                }
+            }
+        }
+        this.size = size;
+    }
+
+    /**
+     * @param network A compiled constraint network
+     * @return Whether or not the network's binary constraint graph is acyclic,
+     *         i.e., has exactly one fewer edge than meetings in every component.
+     */
+    static boolean qualifies (ConstraintNetwork network) {
+        return network.N_ARCS / 2 == network.N_MEETINGS - network.components().length;
+    }
+
+    /**
+     * Solves the forest, permanently pruning its domains.
+     * @return Epoch days of a solution indexed by meeting, or null if none exists.
+     */
+    long[] solve () {
+        return solve(null);
+    }
+
+    /**
+     * Solves the forest given the current values of the conditioned meetings.
+     * @param trail Trail on which to save domains before pruning, or null if
+     *              pruning should be permanent
+     * @return Epoch days of a solution indexed by meeting, or null if none exists.
+     */
+    long[] solve (DomainTrail trail) {
+        // directional arc consistency, children before their parents
+        for (int i = this.size - 1; i >= 0; i--) {
+            int m = this.order[i];
+            if (this.domains.get(m).isEmpty()) {
+                return null;
+            }
+            if (this.parent[m] != -1) {
+                this.arcConsistency.revise(this.parentArc[m], trail);
+            }
+        }
+
+        // every remaining value of a parent has support in each child
+        long[] assignment = new long[this.network.N_MEETINGS];
+        for (int m = 0; m < assignment.length; m++) {
+            if (this.conditioned[m]) {
+                MeetingDomain domain = this.domains.get(m);
+                assignment[m] = domain.toEpochDay(domain.firstOffset());
+            }
+        }
+        for (int i = 0; i < this.size; i++) {
+            int m = this.order[i];
+            MeetingDomain domain = this.domains.get(m);
+            if (this.parent[m] == -1) {
+                assignment[m] = domain.toEpochDay(domain.firstOffset());
+                continue;
+            }
+            // the arc from the parent reversed reads from this meeting
+            int opCode = DateConstraint.reverseOpCode(this.network.ARC_OP[this.parentArc[m]]);
+            long parentDay = assignment[this.parent[m]];
+            int offset = domain.firstOffset();
+            while (offset != -1 && !DateConstraint.isSatisfied(opCode, domain.toEpochDay(offset), parentDay)) {
+                offset = domain.nextOffset(offset + 1);
+            }
+            if (offset == -1) {
+                return null;
+            }
+            assignment[m] = domain.toEpochDay(offset);
+        }
+        return assignment;
+    }
+
+}
@@ -15,6 +15,7 @@ import java.util.*;
 public class UnaryDateConstraint extends DateConstraint {
 
     public final LocalDate R_VAL;
+    public final long R_DAY;
     
     /**
      * Constructs a new UnaryDateConstraint of the format:
@@ -27,6 +28,17 @@ public class UnaryDateConstraint extends DateConstraint {
     public UnaryDateConstraint (int lVal, String operator, LocalDate rVal) {
         super(lVal, operator, 1);
         this.R_VAL = rVal;
+        this.R_DAY = rVal.toEpochDay();
+    }
+    
+    /**
+     * Returns whether the given epoch day satisfies this constraint against
+     * its fixed R_VAL, without materializing any LocalDates.
+     * @param leftDay The epoch day of the L_VAL meeting
+     * @return Whether or not the constraint is satisfied by the given day.
+     */
+    public boolean isSatisfiedBy (long leftDay) {
+        return isSatisfiedBy(leftDay, this.R_DAY);
     }
     
     @Override
@@ -37,14 +49,14 @@ public class UnaryDateConstraint extends DateConstraint {
     @Override
     public boolean equals (Object other) {
         if (this == other) { return true; }
-        if (this.getClass() != other.getClass()) { return false; }
+        if (other == null || this.getClass() != other.getClass()) { return false; }
         UnaryDateConstraint otherDC = (UnaryDateConstraint) other;
         return (this.L_VAL == otherDC.L_VAL && this.OP.equals(otherDC.OP) && this.R_VAL.equals(otherDC.R_VAL));
     }
     
     @Override
     public int hashCode () {
-        return Objects.hash(this.L_VAL) * Objects.hash(this.OP) * Objects.hash(this.R_VAL);
+        return Objects.hash(this.L_VAL, this.OP_CODE, this.R_DAY);
     }
     
     
@@ -10,8 +10,10 @@ import org.junit.rules.TestWatcher;
 import org.junit.rules.Timeout;
 import org.junit.runner.Description;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
 import main.csp.*;
 import static main.csp.CSPSolver.*;
 
@@ -326,6 +328,235 @@ public class CSPTests {
     }
     
     
+    @Test
+    public void filtering_t10() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2022, 3, 5)),
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2022, 3, 10)),
+                new UnaryDateConstraint(1, "<=", LocalDate.of(2022, 3, 5))
+            )
+        );
+        
+        // Range of 365 days spans several words of the bitset-backed domains
+        LocalDate startRange = LocalDate.of(2022, 1, 1),
+                  endRange   = LocalDate.of(2022, 12, 31);
+        
+        List<MeetingDomain> domains = generateDomains(2, startRange, endRange);
+        MeetingDomain copy = new MeetingDomain(domains.get(0));
+        
+        nodeConsistency(domains, constraints);
+        
+        assertEquals(300, domains.get(0).domainValues.size());
+        assertTrue(!domains.get(0).domainValues.contains(LocalDate.of(2022, 3, 10)));
+        assertTrue(domains.get(0).domainValues.contains(LocalDate.of(2022, 12, 31)));
+        assertEquals(64, domains.get(1).domainValues.size());
+        assertTrue(domains.get(1).domainValues.contains(LocalDate.of(2022, 3, 5)));
+        assertTrue(!domains.get(1).domainValues.contains(LocalDate.of(2022, 3, 6)));
+        // copies are independent of the domains they were made from
+        assertEquals(365, copy.domainValues.size());
+    }
+    
+    
+    @Test
+    public void filtering_t11() {
+        // Random constraints over 30 meetings, filtered by each arc
+        // consistency algorithm, must produce the same domains
+        Random rng = new Random(2130);
+        String[] ops = { "==", "!=", "<", "<=", ">", ">=" };
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            int l = rng.nextInt(30), r = rng.nextInt(30);
+            if (l != r) {
+                constraints.add(new BinaryDateConstraint(l, ops[rng.nextInt(ops.length)], r));
+            }
+        }
+        for (int i = 0; i < 15; i++) {
+            constraints.add(new UnaryDateConstraint(rng.nextInt(30), ops[rng.nextInt(ops.length)],
+                LocalDate.of(2022, 1, 1).plusDays(rng.nextInt(100))));
+        }
+        
+        LocalDate startRange = LocalDate.of(2022, 1, 1),
+                  endRange   = LocalDate.of(2022, 4, 30);
+        
+        List<MeetingDomain> ac3 = generateDomains(30, startRange, endRange),
+                            ac2001 = generateDomains(30, startRange, endRange);
+        nodeConsistency(ac3, constraints);
+        nodeConsistency(ac2001, constraints);
+        arcConsistency(ac3, constraints, SolverOptions.ArcConsistencyAlgorithm.AC3);
+        arcConsistency(ac2001, constraints, SolverOptions.ArcConsistencyAlgorithm.AC2001);
+        
+        for (int i = 0; i < 30; i++) {
+            assertEquals(ac3.get(i).domainValues, ac2001.get(i).domainValues);
+        }
+    }
+    
+    @Test
+    public void filtering_t12() {
+        // Domains sharing one bitset of the range are each copied on their
+        // first pruning, leaving the others, and copies, untouched
+        LocalDate startRange = LocalDate.of(2022, 1, 1),
+                  endRange   = LocalDate.of(2022, 12, 31);
+        List<MeetingDomain> domains = MeetingDomain.fullRange(3, startRange, endRange);
+        MeetingDomain copy = new MeetingDomain(domains.get(1));
+        
+        domains.get(0).domainValues.remove(LocalDate.of(2022, 6, 1));
+        domains.get(1).retainOffsets(0, 9);
+        domains.get(2).retainAll(domains.get(1));
+        
+        assertEquals(364, domains.get(0).size());
+        assertEquals(10, domains.get(1).size());
+        assertEquals(10, domains.get(2).size());
+        assertEquals(365, copy.size());
+        assertTrue(copy.domainValues.contains(LocalDate.of(2022, 6, 1)));
+        assertEquals(365, MeetingDomain.fullRange(1, startRange, endRange).get(0).size());
+    }
+    
+    @Test
+    public void filtering_t13() {
+        // The domain's Set view accepts dates back in, but only within its range
+        List<MeetingDomain> domains = generateDomains(2, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5));
+        Set<LocalDate> values = domains.get(0).domainValues;
+        values.retainAll(Arrays.asList(LocalDate.of(2022, 1, 2)));
+        assertEquals(1, values.size());
+        assertTrue(values.add(LocalDate.of(2022, 1, 4)));
+        assertFalse(values.add(LocalDate.of(2022, 1, 4)));
+        assertEquals(new HashSet<>(Arrays.asList(LocalDate.of(2022, 1, 2), LocalDate.of(2022, 1, 4))), values);
+        assertEquals(5, domains.get(1).size());
+        try {
+            values.add(LocalDate.of(2022, 1, 6));
+            fail("[X] Date outside of the range was added");
+        } catch (IllegalArgumentException e) {
+            assertEquals(2, values.size());
+        }
+    }
+    
+    @Test
+    public void filtering_t14() {
+        // The operator-specialized revise kernels must prune exactly what the
+        // generic algorithms do, on sparse random instances that stay
+        // consistent as well as on ones that wipe out
+        String[] ops = { "==", "!=", "<", "<=", ">", ">=" };
+        LocalDate startRange = LocalDate.of(2022, 1, 1),
+                  endRange   = LocalDate.of(2022, 4, 30);
+        for (int seed = 0; seed < 20; seed++) {
+            Random rng = new Random(seed);
+            Set<DateConstraint> constraints = new HashSet<>();
+            for (int i = 0; i < 14; i++) {
+                int l = rng.nextInt(30), r = rng.nextInt(30);
+                if (l != r) {
+                    constraints.add(new BinaryDateConstraint(l, ops[rng.nextInt(ops.length)], r));
+                }
+            }
+            for (int i = 0; i < 8; i++) {
+                constraints.add(new UnaryDateConstraint(rng.nextInt(30), ops[rng.nextInt(ops.length)],
+                    LocalDate.of(2022, 1, 1).plusDays(rng.nextInt(100))));
+            }
+            
+            List<MeetingDomain> ac3 = generateDomains(30, startRange, endRange),
+                                specialized = generateDomains(30, startRange, endRange);
+            nodeConsistency(ac3, constraints);
+            nodeConsistency(specialized, constraints);
+            arcConsistency(ac3, constraints, SolverOptions.ArcConsistencyAlgorithm.AC3);
+            arcConsistency(specialized, constraints, SolverOptions.ArcConsistencyAlgorithm.SPECIALIZED);
+            
+            for (int i = 0; i < 30; i++) {
+                assertEquals(ac3.get(i).domainValues, specialized.get(i).domainValues);
+            }
+        }
+    }
+    
+    
+    // DateConstraint Tests
+    // -------------------------------------------------
+    
+    @Test
+    public void filtering_t15() {
+        // Offset searches clamp out-of-range starts, even on an empty range
+        List<MeetingDomain> domains = generateDomains(1, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+        MeetingDomain domain = domains.get(0);
+        domain.retainOffsets(100, 199);
+        assertEquals(199, domain.prevOffset(400));
+        assertEquals(-1, domain.prevOffset(99));
+        assertEquals(100, domain.nextOffset(-5));
+        assertEquals(-1, domain.nextOffset(200));
+        
+        MeetingDomain empty = new MeetingDomain(LocalDate.of(2022, 1, 2), LocalDate.of(2022, 1, 1));
+        assertEquals(0, empty.span());
+        assertEquals(-1, empty.prevOffset(0));
+        assertEquals(-1, empty.prevOffset(5));
+        assertEquals(-1, empty.nextOffset(0));
+        assertEquals(-1, empty.firstOffset());
+        assertEquals(-1, empty.lastOffset());
+    }
+    
+    @Test
+    public void constraint_t0() {
+        LocalDate[] dates = { LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2), LocalDate.of(2022, 1, 3) };
+        for (String op : Arrays.asList("==", "!=", "<", "<=", ">", ">=")) {
+            BinaryDateConstraint binary = new BinaryDateConstraint(0, op, 1);
+            BinaryDateConstraint reverse = binary.getReverse();
+            for (LocalDate left : dates) {
+                for (LocalDate right : dates) {
+                    boolean expected = binary.isSatisfiedBy(left, right);
+                    // primitive epoch-day path agrees with the LocalDate path
+                    assertEquals(expected, binary.isSatisfiedBy(left.toEpochDay(), right.toEpochDay()));
+                    assertEquals(expected, binary.isReverseSatisfiedBy(right.toEpochDay(), left.toEpochDay()));
+                    assertEquals(expected, reverse.isSatisfiedBy(right, left));
+                    assertEquals(expected, new UnaryDateConstraint(0, op, right).isSatisfiedBy(left.toEpochDay()));
+                }
+            }
+        }
+    }
+    
+    
+    @Test
+    public void constraint_t1() {
+        // Constraints written in either direction are equal and hash alike
+        BinaryDateConstraint forward = new BinaryDateConstraint(0, "<", 1),
+                             backward = new BinaryDateConstraint(1, ">", 0);
+        assertEquals(forward, backward);
+        assertEquals(forward.hashCode(), backward.hashCode());
+        assertEquals(forward, backward.canonical());
+        assertEquals(1, new HashSet<>(Arrays.asList(forward, backward)).size());
+        assertTrue(!forward.equals(new BinaryDateConstraint(0, "<=", 1)));
+        assertTrue(!forward.equals(null));
+    }
+    
+    @Test
+    public void constraint_t2() {
+        // 0 <= 1 and 0 >= 1 merge into 0 == 1
+        Set<DateConstraint> equal = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<=", 1),
+                new BinaryDateConstraint(1, "<=", 0),
+                new UnaryDateConstraint(0, ">", LocalDate.of(2022, 1, 3))
+            )
+        );
+        List<LocalDate> solution = solve(2, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5), equal);
+        testSolution(solution, equal);
+        assertEquals(solution.get(0), solution.get(1));
+        
+        // 0 < 1 and 0 > 1 merge into a relation nothing satisfies, as do
+        // unary constraints folding into an empty range
+        Set<DateConstraint> conflicting = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(0, ">", 1)
+            )
+        );
+        assertNull(solve(2, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5), conflicting));
+        Set<DateConstraint> folded = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">=", LocalDate.of(2022, 1, 3)),
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2022, 1, 3)),
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2022, 1, 3))
+            )
+        );
+        assertNull(solve(1, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5), folded));
+    }
+    
+    
     // CSPSolver Tests
     // -------------------------------------------------
     @Test
@@ -578,4 +809,745 @@ public class CSPTests {
         testSolution(solution, constraints);
     }
     
+    // Search Configuration Tests
+    // -------------------------------------------------
+    
+    @Test
+    public void search_t0() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, "==", 4),
+                new BinaryDateConstraint(4, "<", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // Same puzzle as solve_t7, under every propagation level
+        for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+            List<LocalDate> solution = solve(
+                5,
+                LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 3),
+                constraints,
+                new SolverOptions().propagation(propagation)
+            );
+            testSolution(solution, constraints);
+        }
+    }
+    
+    @Test
+    public void search_t1() {
+        // 4 meetings that must all be on different days, but only 3 days
+        // are available, with each pair only being arc consistent
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        
+        for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+            List<LocalDate> solution = solve(
+                4,
+                LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 3),
+                constraints,
+                new SolverOptions().propagation(propagation)
+            );
+            assertNull(solution);
+        }
+    }
+    
+    @Test
+    public void search_t2() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2022, 1, 1)),
+                new UnaryDateConstraint(1, ">", LocalDate.of(2022, 2, 1)),
+                new UnaryDateConstraint(2, ">", LocalDate.of(2022, 3, 1)),
+                new UnaryDateConstraint(3, ">", LocalDate.of(2022, 4, 1)),
+                new UnaryDateConstraint(4, ">", LocalDate.of(2022, 5, 1)),
+                new BinaryDateConstraint(0, ">", 4),
+                new BinaryDateConstraint(1, ">", 3),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(4, "!=", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // Same problem as solve_t9, under every variable ordering
+        for (SolverOptions.VariableOrdering ordering : SolverOptions.VariableOrdering.values()) {
+            for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+                List<LocalDate> solution = solve(
+                    5,
+                    LocalDate.of(2022, 1, 1),
+                    LocalDate.of(2022, 6, 30),
+                    constraints,
+                    new SolverOptions().variableOrdering(ordering).propagation(propagation)
+                );
+                testSolution(solution, constraints);
+            }
+        }
+    }
+    
+    @Test
+    public void search_t3() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "<", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, ">=", 0),
+                new UnaryDateConstraint(3, "!=", LocalDate.of(2022, 1, 10))
+            )
+        );
+        
+        // Every value ordering finds a solution, and seeded orderings
+        // find the same one on every run
+        for (SolverOptions.ValueOrdering ordering : SolverOptions.ValueOrdering.values()) {
+            SolverOptions options = new SolverOptions().valueOrdering(ordering).seed(2130);
+            List<LocalDate> solution = solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 10), constraints, options);
+            testSolution(solution, constraints);
+            assertEquals(solution, solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 10), constraints, options));
+        }
+        
+        // Chronological and reverse orderings pick the extremes for meeting 0
+        // when solved by backtracking search
+        List<LocalDate> earliest = solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 10), constraints,
+            new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                               .variableOrdering(SolverOptions.VariableOrdering.INDEX));
+        assertEquals(LocalDate.of(2022, 1, 1), earliest.get(0));
+        List<LocalDate> latest = solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 10), constraints,
+            new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                               .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                               .valueOrdering(SolverOptions.ValueOrdering.REVERSE));
+        assertEquals(LocalDate.of(2022, 1, 9), latest.get(0));
+    }
+    
+    @Test
+    public void search_t4() {
+        // 0 == 1 forces 24 and 25 onto the same day, which 24 != 25 forbids,
+        // but only once both are reached past a chain of meetings unrelated to
+        // the conflict, which backjumping skips in one step
+        Set<DateConstraint> constraints = new HashSet<>();
+        constraints.add(new BinaryDateConstraint(0, "==", 1));
+        constraints.add(new BinaryDateConstraint(0, "!=", 24));
+        constraints.add(new BinaryDateConstraint(1, "!=", 25));
+        constraints.add(new BinaryDateConstraint(24, "!=", 25));
+        for (int i = 1; i < 23; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        for (int i : new int[] {0, 1, 24, 25}) {
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 2)));
+        }
+        for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+            SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                       .propagation(propagation)
+                                                       .variableOrdering(SolverOptions.VariableOrdering.INDEX);
+            assertNull(solve(26, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options));
+        }
+        
+        // without 0 == 1, backjumping only skips dead ends, so it finds the
+        // same first solution as chronological backtracking under MAC
+        constraints.remove(new BinaryDateConstraint(0, "==", 1));
+        SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                   .propagation(SolverOptions.Propagation.FORWARD_CHECKING)
+                                                   .variableOrdering(SolverOptions.VariableOrdering.INDEX);
+        List<LocalDate> solution = solve(26, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options);
+        testSolution(solution, constraints);
+        assertEquals(solve(26, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints,
+            options.propagation(SolverOptions.Propagation.MAC)), solution);
+    }
+    
+    @Test
+    public void search_t5() {
+        // Learned nogoods only rule out dead ends, so however many are kept,
+        // the search finds the same first solution, or none, on random instances
+        String[] ops = {"<", "<=", "==", "!=", ">=", ">"};
+        Random random = new Random(18);
+        for (int instance = 0; instance < 40; instance++) {
+            Set<DateConstraint> constraints = new HashSet<>();
+            for (int i = 0; i < 12; i++) {
+                for (int j = i + 1; j < 12; j++) {
+                    if (random.nextInt(4) == 0) {
+                        constraints.add(new BinaryDateConstraint(i, ops[random.nextInt(ops.length)], j));
+                    }
+                }
+            }
+            for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+                SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                           .propagation(propagation)
+                                                           .nogoods(0);
+                List<LocalDate> expected = solve(12, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), constraints, options);
+                for (int capacity : new int[] {1, 4, 4096}) {
+                    assertEquals(expected, solve(12, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), constraints,
+                        options.nogoods(capacity)));
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void search_t6() {
+        // Restarting after as few as one failure still proves unsatisfiability,
+        // as the failure limit keeps growing, and finds the same solution on
+        // every run with the same seed
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            for (int j = i + 1; j < 8; j++) {
+                constraints.add(new BinaryDateConstraint(i, (i + j) % 3 == 0 ? "<" : "!=", j));
+            }
+        }
+        for (SolverOptions.Restarts restarts : SolverOptions.Restarts.values()) {
+            for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+                SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                           .propagation(propagation)
+                                                           .allDifferent(false)
+                                                           .restarts(restarts)
+                                                           .restartBase(1)
+                                                           .seed(19);
+                assertNull(solve(8, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 7), constraints, options));
+                List<LocalDate> solution = solve(8, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 9), constraints, options);
+                testSolution(solution, constraints);
+                assertEquals(solution, solve(8, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 9), constraints, options));
+            }
+        }
+    }
+    
+    @Test
+    public void search_t7() {
+        // Splitting the search tree across workers finds a solution exactly
+        // when the sequential search does, though not necessarily the same one
+        String[] ops = {"<", "<=", "==", "!=", ">=", ">"};
+        Random random = new Random(21);
+        for (int instance = 0; instance < 30; instance++) {
+            Set<DateConstraint> constraints = new HashSet<>();
+            for (int i = 0; i < 12; i++) {
+                for (int j = i + 1; j < 12; j++) {
+                    if (random.nextInt(4) == 0) {
+                        constraints.add(new BinaryDateConstraint(i, ops[random.nextInt(ops.length)], j));
+                    }
+                }
+            }
+            for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+                SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                           .propagation(propagation);
+                List<LocalDate> expected = solve(12, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), constraints, options);
+                List<LocalDate> solution = solve(12, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), constraints,
+                    options.parallelism(4));
+                if (expected == null) {
+                    assertNull(solution);
+                } else {
+                    testSolution(solution, constraints);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void search_t8() {
+        // The search keeps its choice points in arrays rather than on the call
+        // stack, so a chain of tens of thousands of meetings cannot overflow it
+        int n = 20000;
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i + 1 < n; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                   .propagation(SolverOptions.Propagation.FORWARD_CHECKING)
+                                                   .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                   .backjumping(false);
+        testSolution(solve(n, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2), constraints, options), constraints);
+    }
+    
+    // Batch Tests
+    // -------------------------------------------------
+    
+    @Test
+    public void search_t9() throws Exception {
+        // Another thread can watch the search's depth and failures while it
+        // runs; chronological backtracking cannot refute this chain in time,
+        // so its batch's timeout stops it
+        Set<DateConstraint> constraints = new HashSet<>();
+        constraints.add(new BinaryDateConstraint(0, "==", 1));
+        constraints.add(new BinaryDateConstraint(0, "!=", 40));
+        constraints.add(new BinaryDateConstraint(1, "!=", 41));
+        constraints.add(new BinaryDateConstraint(40, "!=", 41));
+        for (int i = 1; i < 39; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        for (int i : new int[] {0, 1, 40, 41}) {
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 2)));
+        }
+        SearchProgress progress = new SearchProgress();
+        SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                   .propagation(SolverOptions.Propagation.NONE)
+                                                   .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                   .backjumping(false)
+                                                   .nogoods(0)
+                                                   .progress(progress);
+        List<SchedulingProblem> problems = Arrays.asList(
+            new SchedulingProblem(42, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints));
+        try (BatchSolver batch = new BatchSolver(options, 1, Duration.ofMillis(500))) {
+            CompletableFuture<List<BatchSolver.Result>> results = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return batch.solveAll(problems);
+                } catch (InterruptedException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            long failures;
+            while ((failures = progress.failures()) == 0) {
+                Thread.sleep(1);
+            }
+            int depth = progress.depth();
+            assertTrue(depth > 0 && depth <= 42);
+            // without restarts, failures only grow
+            assertTrue(progress.failures() >= failures);
+            assertEquals(BatchSolver.Status.TIMED_OUT, results.get().get(0).STATUS);
+            assertTrue(progress.failures() >= failures);
+        }
+    }
+    
+    @Test
+    public void search_t10() {
+        // Each assignment is checked against the constraints incident to its
+        // meeting alone: 2 != 0 rejects 2's first date as soon as 2 is
+        // assigned, with no other constraint involved
+        SearchProgress progress = new SearchProgress();
+        SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                   .propagation(SolverOptions.Propagation.NONE)
+                                                   .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                   .backjumping(false)
+                                                   .nogoods(0)
+                                                   .progress(progress);
+        Set<DateConstraint> constraints = new HashSet<>(Arrays.asList(new BinaryDateConstraint(2, "!=", 0)));
+        assertEquals(Arrays.asList(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2)),
+            solve(3, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options));
+        assertEquals(1, progress.failures());
+        
+        // while the constraints between meetings assigned before it are not
+        // rechecked: 300 meetings that must all differ, after 300 others
+        // ordered by 44850 <= constraints, each fail only on the dates taken
+        // by the earlier ones, which rescanning all 89701 constraints at each
+        // of those 44850 failures could not do in time
+        int k = 300;
+        Set<DateConstraint> clique = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            for (int j = i + 1; j < k; j++) {
+                clique.add(new BinaryDateConstraint(i, "<=", j));
+                clique.add(new BinaryDateConstraint(k + i, "!=", k + j));
+            }
+        }
+        clique.add(new BinaryDateConstraint(k - 1, "<=", k));
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        List<LocalDate> solution = solve(2 * k, start, start.plusDays(k - 1), clique, options);
+        testSolution(solution, clique);
+        for (int i = 0; i < k; i++) {
+            assertEquals(start, solution.get(i));
+            assertEquals(start.plusDays(i), solution.get(k + i));
+        }
+        assertEquals((long) k * (k - 1) / 2, progress.failures());
+    }
+    
+    @Test
+    public void search_t11() {
+        // A store of 4 nogoods that learns hundreds evicts the least recently
+        // used half whenever it is full and reuses their slots, and the
+        // nogoods it keeps still only prune dead ends: meeting 0 takes one of
+        // the 6 days the all-different meetings 1 to 6 need, until it is
+        // moved to the 7th
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i <= 6; i++) {
+            for (int j = i + 1; j <= 6; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+            if (i > 0) {
+                constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 6)));
+            }
+        }
+        for (SolverOptions.Propagation propagation : SolverOptions.Propagation.values()) {
+            SearchProgress progress = new SearchProgress();
+            SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                       .propagation(propagation)
+                                                       .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                       .allDifferent(false)
+                                                       .nogoods(0);
+            List<LocalDate> expected = solve(7, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 7), constraints, options);
+            assertEquals(LocalDate.of(2022, 1, 7), expected.get(0));
+            assertEquals(expected, solve(7, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 7), constraints,
+                options.nogoods(4).progress(progress)));
+            assertTrue(progress.learned() > 100);
+            // at least the most recently used half survives each eviction
+            assertTrue(progress.nogoods() >= 2 && progress.nogoods() <= 4);
+            
+            // and the same holds when every day is taken, and there is no solution
+            constraints.add(new UnaryDateConstraint(0, "<=", LocalDate.of(2022, 1, 6)));
+            assertNull(solve(7, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 7), constraints, options));
+            assertTrue(progress.learned() > 100);
+            assertTrue(progress.nogoods() >= 2 && progress.nogoods() <= 4);
+            constraints.remove(new UnaryDateConstraint(0, "<=", LocalDate.of(2022, 1, 6)));
+        }
+    }
+    
+    @Test
+    public void batch_t0() throws InterruptedException {
+        // Each problem of a batch gets its own result, in order, whether it
+        // is solved, unsatisfiable, too slow, or throws
+        Set<DateConstraint> sat = new HashSet<>(Arrays.asList(new BinaryDateConstraint(0, "<", 1)));
+        Set<DateConstraint> unsat = new HashSet<>(Arrays.asList(
+            new BinaryDateConstraint(0, "<", 1), new BinaryDateConstraint(1, "<", 0)));
+        Set<DateConstraint> broken = new HashSet<>(Arrays.asList(new BinaryDateConstraint(0, "<", 5)));
+        // the chain of != between 0 and 1 hides their conflict from
+        // chronological backtracking without propagation for some 2^38
+        // assignments, so it cannot be decided before its timeout
+        Set<DateConstraint> slow = new HashSet<>();
+        slow.add(new BinaryDateConstraint(0, "==", 1));
+        slow.add(new BinaryDateConstraint(0, "!=", 40));
+        slow.add(new BinaryDateConstraint(1, "!=", 41));
+        slow.add(new BinaryDateConstraint(40, "!=", 41));
+        for (int i = 1; i < 39; i++) {
+            slow.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        for (int i : new int[] {0, 1, 40, 41}) {
+            slow.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 2)));
+        }
+        LocalDate start = LocalDate.of(2022, 1, 1), end = LocalDate.of(2022, 1, 3);
+        List<SchedulingProblem> problems = Arrays.asList(
+            new SchedulingProblem(2, start, end, sat),
+            new SchedulingProblem(42, start, end, slow),
+            new SchedulingProblem(2, start, end, unsat),
+            new SchedulingProblem(2, start, end, broken)
+        );
+        SolverOptions options = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                   .propagation(SolverOptions.Propagation.NONE)
+                                                   .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                   .backjumping(false)
+                                                   .nogoods(0);
+        try (BatchSolver batch = new BatchSolver(options, 1, Duration.ofMillis(200))) {
+            List<BatchSolver.Result> results = batch.solveAll(problems);
+            assertEquals(BatchSolver.Status.SOLVED, results.get(0).STATUS);
+            testSolution(results.get(0).SOLUTION, sat);
+            assertEquals(BatchSolver.Status.TIMED_OUT, results.get(1).STATUS);
+            assertEquals(BatchSolver.Status.UNSATISFIABLE, results.get(2).STATUS);
+            assertEquals(BatchSolver.Status.FAILED, results.get(3).STATUS);
+            assertNotNull(results.get(3).ERROR);
+            
+            // results stream in as they finish, which on a single thread is
+            // the order given, and the pool is reused
+            List<Integer> finished = new ArrayList<>();
+            batch.solveEach(problems, result -> finished.add(result.INDEX));
+            assertEquals(Arrays.asList(0, 1, 2, 3), finished);
+        }
+    }
+    
+    // Specialized Engine Tests
+    // -------------------------------------------------
+    
+    @Test
+    public void engine_t0() {
+        // A chain of 2000 meetings, each strictly after the last, is a Simple
+        // Temporal Problem solved for the earliest schedule without search
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 1999; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<", i + 1));
+        }
+        constraints.add(new UnaryDateConstraint(0, "!=", LocalDate.of(2022, 1, 1)));
+        constraints.add(new UnaryDateConstraint(1, "!=", LocalDate.of(2022, 1, 3)));
+        
+        List<LocalDate> solution = solve(2000, LocalDate.of(2022, 1, 1), LocalDate.of(2027, 12, 31), constraints);
+        testSolution(solution, constraints);
+        // excluded days are skipped over
+        assertEquals(LocalDate.of(2022, 1, 2), solution.get(0));
+        assertEquals(LocalDate.of(2022, 1, 4), solution.get(1));
+        assertEquals(LocalDate.of(2022, 1, 4).plusDays(1998), solution.get(1999));
+    }
+    
+    @Test
+    public void engine_t1() {
+        // 0 < 1 < 2 <= 0 is a positive cycle, which makes the STP unsatisfiable
+        // long before bounds are pushed off of a 10-year range
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(1, "<", 2),
+                new BinaryDateConstraint(2, "<=", 0),
+                new BinaryDateConstraint(3, ">=", 2)
+            )
+        );
+        assertNull(solve(4, LocalDate.of(2020, 1, 1), LocalDate.of(2029, 12, 31), constraints));
+        
+        // Not enough days for a chain of 5
+        Set<DateConstraint> chain = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            chain.add(new BinaryDateConstraint(i + 1, ">", i));
+        }
+        assertNull(solve(5, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), chain));
+    }
+    
+    @Test
+    public void engine_t2() throws InterruptedException {
+        // 50 independent clusters of 4 meetings, solved in parallel
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int c = 0; c < 200; c += 4) {
+            constraints.add(new BinaryDateConstraint(c, "!=", c + 1));
+            constraints.add(new BinaryDateConstraint(c + 1, "!=", c + 2));
+            constraints.add(new BinaryDateConstraint(c + 2, "<", c + 3));
+            constraints.add(new BinaryDateConstraint(c + 3, "!=", c));
+        }
+        // meeting 200 is unconstrained by any other
+        constraints.add(new UnaryDateConstraint(200, ">", LocalDate.of(2022, 1, 2)));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SolverOptions options = new SolverOptions().executor(executor);
+            List<LocalDate> solution = solve(201, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options);
+            testSolution(solution, constraints);
+            assertEquals(201, solution.size());
+            assertEquals(solve(201, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints), solution);
+            
+            // one unsatisfiable cluster makes the whole problem unsatisfiable
+            for (int i = 201; i < 205; i++) {
+                for (int j = i + 1; j < 205; j++) {
+                    constraints.add(new BinaryDateConstraint(i, "!=", j));
+                }
+            }
+            assertNull(solve(205, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void engine_t3() {
+        // a binary tree of 1023 meetings mixing every operator, which is
+        // solved without backtracking
+        Set<DateConstraint> constraints = new HashSet<>();
+        String[] ops = {"!=", "<", ">=", "!=", "<=", ">"};
+        for (int m = 1; m < 1023; m++) {
+            constraints.add(new BinaryDateConstraint((m - 1) / 2, ops[m % ops.length], m));
+        }
+        constraints.add(new UnaryDateConstraint(0, "!=", LocalDate.of(2022, 1, 1)));
+        List<LocalDate> solution = solve(1023, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 30), constraints);
+        testSolution(solution, constraints);
+        
+        // a path 0 < 1 < 2 != 3 over 2 days has no solution, found once 0 and 1
+        // are pruned bottom-up
+        constraints = new HashSet<>(Arrays.asList(
+            new BinaryDateConstraint(0, "<", 1),
+            new BinaryDateConstraint(1, "<", 2),
+            new BinaryDateConstraint(2, "!=", 3)
+        ));
+        assertNull(solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2), constraints));
+    }
+    
+    @Test
+    public void engine_t4() {
+        // a chain of 500 meetings closed into a ring by != between its ends,
+        // with a chord, has a cutset of one or two meetings
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 499; i++) {
+            constraints.add(new BinaryDateConstraint(i, i % 2 == 0 ? "!=" : "<=", i + 1));
+        }
+        constraints.add(new BinaryDateConstraint(499, "!=", 0));
+        constraints.add(new BinaryDateConstraint(100, "!=", 400));
+        List<LocalDate> solution = solve(500, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5), constraints);
+        testSolution(solution, constraints);
+        testSolution(solve(500, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 5), constraints,
+            new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)), constraints);
+        
+        // a triangle of != over two days is unsatisfiable under every cutset value
+        constraints = new HashSet<>(Arrays.asList(
+            new BinaryDateConstraint(0, "!=", 1),
+            new BinaryDateConstraint(1, "!=", 2),
+            new BinaryDateConstraint(2, "!=", 0),
+            new BinaryDateConstraint(2, "<", 3)
+        ));
+        assertNull(solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2), constraints));
+    }
+    
+    @Test
+    public void engine_t5() {
+        // 14 meetings on pairwise different days over 13 days cannot be
+        // scheduled, which matching finds without any search
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 14; i++) {
+            for (int j = i + 1; j < 14; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        assertNull(solve(14, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 13), constraints));
+        
+        // with a 14th day, and meetings 0 to 12 all before day 14, meeting 13
+        // must take day 14 itself
+        for (int i = 0; i < 13; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<", 13));
+        }
+        List<LocalDate> solution = solve(14, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 14), constraints);
+        testSolution(solution, constraints);
+        assertEquals(LocalDate.of(2022, 1, 14), solution.get(13));
+        
+        // Hall sets: meetings 0 to 2 share 3 days, which no other meeting may take
+        constraints = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            for (int j = i + 1; j < 6; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 3)));
+        }
+        constraints.add(new UnaryDateConstraint(3, "<=", LocalDate.of(2022, 1, 4)));
+        solution = solve(6, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 6), constraints,
+            new SolverOptions().propagation(SolverOptions.Propagation.MAC));
+        testSolution(solution, constraints);
+        assertEquals(LocalDate.of(2022, 1, 4), solution.get(3));
+    }
+    
+    @Test
+    public void engine_t6() {
+        // meetings on a 30 x 30 grid, each on a different day from those
+        // beside it, is coloring with lists given by unary constraints
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int r = 0; r < 30; r++) {
+            for (int c = 0; c < 30; c++) {
+                if (c + 1 < 30) {
+                    constraints.add(new BinaryDateConstraint(r * 30 + c, "!=", r * 30 + c + 1));
+                }
+                if (r + 1 < 30) {
+                    constraints.add(new BinaryDateConstraint(r * 30 + c, "!=", (r + 1) * 30 + c));
+                }
+            }
+            constraints.add(new UnaryDateConstraint(r * 31, "!=", LocalDate.of(2022, 1, 1)));
+        }
+        List<LocalDate> solution = solve(900, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints);
+        testSolution(solution, constraints);
+        
+        // the Grotzsch graph has no triangles but needs 4 colors
+        constraints = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", (i + 1) % 5));
+            constraints.add(new BinaryDateConstraint(5 + i, "!=", (i + 1) % 5));
+            constraints.add(new BinaryDateConstraint(5 + i, "!=", (i + 4) % 5));
+            constraints.add(new BinaryDateConstraint(5 + i, "!=", 10));
+        }
+        assertNull(solve(11, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints));
+        testSolution(solve(11, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 4), constraints), constraints);
+    }
+    
+    @Test
+    public void engine_t7() throws InterruptedException {
+        // chronological backtracking without propagation would take far too
+        // long to rediscover the conflict between 0, 1, 40, and 41 through a
+        // chain of unrelated meetings; a configuration that backjumps finishes
+        // first and stops it, so that every worker thread exits
+        Set<DateConstraint> constraints = new HashSet<>();
+        constraints.add(new BinaryDateConstraint(0, "==", 1));
+        constraints.add(new BinaryDateConstraint(0, "!=", 40));
+        constraints.add(new BinaryDateConstraint(1, "!=", 41));
+        constraints.add(new BinaryDateConstraint(40, "!=", 41));
+        for (int i = 1; i < 39; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        for (int i : new int[] {0, 1, 40, 41}) {
+            constraints.add(new UnaryDateConstraint(i, "<=", LocalDate.of(2022, 1, 2)));
+        }
+        SolverOptions chronological = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                         .propagation(SolverOptions.Propagation.NONE)
+                                                         .variableOrdering(SolverOptions.VariableOrdering.INDEX)
+                                                         .backjumping(false)
+                                                         .nogoods(0);
+        SolverOptions backjumping = new SolverOptions().engine(SolverOptions.Engine.BACKTRACKING)
+                                                       .propagation(SolverOptions.Propagation.FORWARD_CHECKING)
+                                                       .variableOrdering(SolverOptions.VariableOrdering.INDEX);
+        List<Thread> workers = Collections.synchronizedList(new ArrayList<>());
+        SolverOptions options = new SolverOptions().portfolio(chronological, backjumping).executor(task -> {
+            Thread worker = new Thread(task);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        });
+        assertNull(solve(42, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options));
+        assertEquals(2, workers.size());
+        for (Thread worker : workers) {
+            worker.join(1000);
+            assertFalse(worker.isAlive());
+        }
+        
+        // whichever configuration wins, its solution is returned
+        constraints.remove(new BinaryDateConstraint(0, "==", 1));
+        List<LocalDate> solution = solve(42, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints,
+            options.portfolio(chronological, backjumping, new SolverOptions().restarts(SolverOptions.Restarts.LUBY).seed(20)));
+        testSolution(solution, constraints);
+    }
+    
+    @Test
+    public void engine_t8() {
+        // a configuration whose executor rejects the second component throws,
+        // which only fails the race once every configuration has thrown
+        Set<DateConstraint> constraints = new HashSet<>();
+        constraints.add(new BinaryDateConstraint(0, "<", 1));
+        constraints.add(new BinaryDateConstraint(2, "!=", 3));
+        SolverOptions failing = new SolverOptions().executor(task -> {
+            throw new RejectedExecutionException();
+        });
+        SolverOptions options = new SolverOptions().portfolio(failing, new SolverOptions(), failing);
+        for (int i = 0; i < 10; i++) {
+            testSolution(solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options), constraints);
+        }
+        try {
+            solve(4, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints, options.portfolio(failing, failing));
+            fail("[X] Portfolio in which every configuration threw returned");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, e.getSuppressed().length);
+        }
+    }
+    
+    @Test
+    public void engine_t9() {
+        // differing lower bounds raise 2's bound more than n times through
+        // the acyclic 3 < 0 < 1 < 2, which is not a positive cycle
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<", 2),
+                new BinaryDateConstraint(1, "<", 2),
+                new BinaryDateConstraint(3, "<=", 1),
+                new BinaryDateConstraint(3, "<", 0),
+                new BinaryDateConstraint(3, "<=", 2),
+                new BinaryDateConstraint(0, "<", 1),
+                new UnaryDateConstraint(3, ">=", LocalDate.of(2012, 7, 25)),
+                new UnaryDateConstraint(0, ">=", LocalDate.of(2012, 2, 21)),
+                new UnaryDateConstraint(2, ">=", LocalDate.of(2010, 9, 27)),
+                new UnaryDateConstraint(1, ">=", LocalDate.of(2009, 11, 17))
+            )
+        );
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        List<LocalDate> solution = solve(4, start, start.plusDays(20000), constraints);
+        testSolution(solution, constraints);
+        assertEquals(Arrays.asList(LocalDate.of(2012, 7, 26), LocalDate.of(2012, 7, 27), LocalDate.of(2012, 7, 28),
+            LocalDate.of(2012, 7, 25)), solution);
+    }
+    
+    @Test
+    public void engine_t10() {
+        // DSatur keeps its choice points in arrays rather than on the call
+        // stack, so coloring a long band of != cannot overflow it
+        int n = 10000;
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i + 1 < n; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+            if (i + 2 < n) {
+                constraints.add(new BinaryDateConstraint(i, "!=", i + 2));
+            }
+        }
+        List<LocalDate> solution = solve(n, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), constraints);
+        testSolution(solution, constraints);
+        
+        // two days are too few, which DSatur finds without deep backtracking
+        assertNull(solve(n, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2), constraints));
+    }
+    
 }